@@ -0,0 +1,284 @@
+/*
+ * Copyright (c) 2018-present Sonatype, Inc. All rights reserved.
+ *
+ * This program is licensed to you under the Apache License Version 2.0,
+ * and you may not use this file except in compliance with the Apache License Version 2.0.
+ * You may obtain a copy of the Apache License Version 2.0 at http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the Apache License Version 2.0 is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Apache License Version 2.0 for the specific language governing permissions and limitations there under.
+ */
+package org.sonatype.ossindex.service.client.transport.http2;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.Authenticator;
+import java.net.InetSocketAddress;
+import java.net.PasswordAuthentication;
+import java.net.ProxySelector;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import org.sonatype.ossindex.service.client.OssindexClientConfiguration;
+import org.sonatype.ossindex.service.client.transport.AuthConfiguration;
+import org.sonatype.ossindex.service.client.transport.BasicAuthHelper;
+import org.sonatype.ossindex.service.client.transport.CompressionConfiguration;
+import org.sonatype.ossindex.service.client.transport.ContentEncodingHelper;
+import org.sonatype.ossindex.service.client.transport.ProxyConfiguration;
+import org.sonatype.ossindex.service.client.transport.RetryAfterHelper;
+import org.sonatype.ossindex.service.client.transport.TimeoutConfiguration;
+import org.sonatype.ossindex.service.client.transport.Transport;
+import org.sonatype.ossindex.service.client.transport.UserAgentSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.net.HttpHeaders.ACCEPT;
+import static com.google.common.net.HttpHeaders.ACCEPT_ENCODING;
+import static com.google.common.net.HttpHeaders.AUTHORIZATION;
+import static com.google.common.net.HttpHeaders.CONTENT_ENCODING;
+import static com.google.common.net.HttpHeaders.CONTENT_TYPE;
+import static com.google.common.net.HttpHeaders.RETRY_AFTER;
+import static com.google.common.net.HttpHeaders.USER_AGENT;
+import static java.net.HttpURLConnection.HTTP_OK;
+
+/**
+ * Java 11 {@link HttpClient} transport.
+ *
+ * Prefers HTTP/2, so concurrent requests are multiplexed over a single connection when the server supports it;
+ * falls back to HTTP/1.1 otherwise.
+ *
+ * @since 1.8.3
+ */
+public class JdkHttpClientTransport
+    implements Transport
+{
+  private static final Logger log = LoggerFactory.getLogger(JdkHttpClientTransport.class);
+
+  private final UserAgentSupplier userAgent;
+
+  private OssindexClientConfiguration configuration;
+
+  private volatile HttpClient httpClient;
+
+  public JdkHttpClientTransport(final UserAgentSupplier userAgent) {
+    this.userAgent = checkNotNull(userAgent);
+  }
+
+  @Override
+  public void init(final OssindexClientConfiguration configuration) {
+    this.configuration = checkNotNull(configuration);
+    this.httpClient = createClient();
+  }
+
+  @Override
+  public void close() throws Exception {
+    // java.net.http.HttpClient has no explicit close; release reference so resources can be reclaimed
+    httpClient = null;
+  }
+
+  @Override
+  public String post(final URI url, final String payloadType, final String payload, final String acceptType)
+      throws TransportException, IOException
+  {
+    return post(url, payloadType, new StringPayloadWriter(payload), acceptType,
+        input -> new String(input.readAllBytes(), StandardCharsets.UTF_8));
+  }
+
+  @Override
+  public <T> T post(final URI url,
+                    final String payloadType,
+                    final PayloadWriter payload,
+                    final String acceptType,
+                    final ResponseFunction<T> function)
+      throws TransportException, IOException
+  {
+    HttpClient httpClient = this.httpClient;
+    checkState(httpClient != null, "Not initialized");
+
+    log.debug("POST {}; payload: {} ({}); accept: {}", url, payload, payloadType, acceptType);
+
+    HttpResponse<InputStream> response;
+    try {
+      response = httpClient.send(createRequest(url, payloadType, payload, acceptType), BodyHandlers.ofInputStream());
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw (IOException) new InterruptedIOException("Interrupted").initCause(e);
+    }
+
+    // closing the stream releases the underlying connection or stream
+    try (InputStream stream = response.body()) {
+      checkStatus(response);
+      try (InputStream input = decode(response, stream)) {
+        return function.apply(input);
+      }
+    }
+  }
+
+  /**
+   * Perform HTTP POST request asynchronously; content-encoding is handled as by
+   * {@link #post(URI, String, PayloadWriter, String, ResponseFunction)}.
+   *
+   * Failures complete the future exceptionally with {@link IOException} or {@link TransportException}.
+   */
+  public CompletableFuture<String> postAsync(final URI url,
+                                            final String payloadType,
+                                            final String payload,
+                                            final String acceptType)
+  {
+    HttpClient httpClient = this.httpClient;
+    checkState(httpClient != null, "Not initialized");
+
+    log.debug("POST (async) {}; payload: {} ({}); accept: {}", url, payload, payloadType, acceptType);
+
+    HttpRequest request;
+    try {
+      request = createRequest(url, payloadType, new StringPayloadWriter(payload), acceptType);
+    }
+    catch (IOException e) {
+      return CompletableFuture.failedFuture(e);
+    }
+    return httpClient.sendAsync(request, BodyHandlers.ofByteArray()).thenApply(response -> {
+      try {
+        checkStatus(response);
+        try (InputStream input = decode(response, new ByteArrayInputStream(response.body()))) {
+          return new String(input.readAllBytes(), StandardCharsets.UTF_8);
+        }
+      }
+      catch (TransportException | IOException e) {
+        throw new CompletionException(e);
+      }
+    });
+  }
+
+  /**
+   * Create request; applying configured content-encoding.
+   *
+   * Body-publishers pull content on the client's own threads; payload is rendered up-front so write failures
+   * surface to the caller.
+   */
+  private HttpRequest createRequest(final URI url,
+                                    final String payloadType,
+                                    final PayloadWriter payload,
+                                    final String acceptType)
+      throws IOException
+  {
+    CompressionConfiguration compression =
+        ContentEncodingHelper.compression(configuration.getCompressionConfiguration());
+
+    ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    (compression.isRequests() ? ContentEncodingHelper.gzip(payload) : payload).writeTo(buffer);
+
+    HttpRequest.Builder request = HttpRequest.newBuilder(url)
+        .POST(BodyPublishers.ofByteArray(buffer.toByteArray()))
+        .header(CONTENT_TYPE, payloadType)
+        .header(ACCEPT, acceptType);
+    if (compression.isRequests()) {
+      request.header(CONTENT_ENCODING, ContentEncodingHelper.GZIP);
+    }
+    if (compression.isResponses()) {
+      request.header(ACCEPT_ENCODING, ContentEncodingHelper.ACCEPT_ENCODING);
+    }
+    customize(request);
+    return request.build();
+  }
+
+  /**
+   * Wrap response body to decode its {@code Content-Encoding}.
+   */
+  private static InputStream decode(final HttpResponse<?> response, final InputStream body) throws IOException {
+    return ContentEncodingHelper.decode(response.headers().firstValue(CONTENT_ENCODING).orElse(null), body);
+  }
+
+  private static void checkStatus(final HttpResponse<?> response) throws TransportException {
+    int status = response.statusCode();
+    log.trace("Status: {} ({})", status, response.version());
+
+    if (status != HTTP_OK) {
+      throw new StatusException(status, RetryAfterHelper.parse(response.headers().firstValue(RETRY_AFTER).orElse(null)));
+    }
+  }
+
+  /**
+   * Create customized client.
+   *
+   * Invoked once from {@link #init(OssindexClientConfiguration)}; the client is shared by all requests.
+   */
+  protected HttpClient createClient() {
+    HttpClient.Builder builder = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_2)
+        .followRedirects(HttpClient.Redirect.NEVER);
+
+    // maybe configure http-proxy support
+    ProxyConfiguration proxyConfiguration = configuration.getProxyConfiguration();
+    if (proxyConfiguration != null) {
+      // TODO: non-proxy-hosts matching?
+
+      InetSocketAddress proxy = new InetSocketAddress(proxyConfiguration.getHost(), proxyConfiguration.getPort());
+      builder.proxy(ProxySelector.of(proxy));
+      log.debug("Configured http-proxy: {}", proxy);
+
+      // maybe configure http-proxy authentication; scoped to this client only
+      AuthConfiguration auth = proxyConfiguration.getAuthConfiguration();
+      if (auth != null) {
+        final PasswordAuthentication credentials =
+            new PasswordAuthentication(auth.getUsername(), auth.getPassword().toCharArray());
+
+        builder.authenticator(new Authenticator()
+        {
+          @Override
+          protected PasswordAuthentication getPasswordAuthentication() {
+            if (getRequestorType() == RequestorType.PROXY) {
+              return credentials;
+            }
+            return null;
+          }
+        });
+        log.debug("Configured http-proxy authentication");
+      }
+    }
+
+    // maybe configure connect timeout; socket timeout is applied per-request
+    TimeoutConfiguration timeoutConfiguration = configuration.getTimeoutConfiguration();
+    if (timeoutConfiguration != null && timeoutConfiguration.getConnectTimeout() > 0) {
+      builder.connectTimeout(Duration.ofMillis(timeoutConfiguration.getConnectTimeout()));
+    }
+
+    return builder.build();
+  }
+
+  /**
+   * Customize request.
+   */
+  protected void customize(final HttpRequest.Builder request) {
+    request.header(USER_AGENT, userAgent.get());
+
+    // closest equivalent of socket timeout; bounds the time until the response is received
+    TimeoutConfiguration timeoutConfiguration = configuration.getTimeoutConfiguration();
+    if (timeoutConfiguration != null && timeoutConfiguration.getSocketTimeout() > 0) {
+      request.timeout(Duration.ofMillis(timeoutConfiguration.getSocketTimeout()));
+    }
+
+    // maybe add authorization headers if configured
+    String authorization = BasicAuthHelper.authorizationHeader(configuration.getAuthConfiguration());
+    if (authorization != null) {
+      request.header(AUTHORIZATION, authorization);
+    }
+  }
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright (c) 2018-present Sonatype, Inc. All rights reserved.
+ *
+ * This program is licensed to you under the Apache License Version 2.0,
+ * and you may not use this file except in compliance with the Apache License Version 2.0.
+ * You may obtain a copy of the Apache License Version 2.0 at http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the Apache License Version 2.0 is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Apache License Version 2.0 for the specific language governing permissions and limitations there under.
+ */
+package org.sonatype.ossindex.service.client.transport.http2;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.sonatype.goodies.testsupport.TestSupport;
+import org.sonatype.ossindex.service.client.OssindexClientConfiguration;
+import org.sonatype.ossindex.service.client.transport.CompressionConfiguration;
+import org.sonatype.ossindex.service.client.transport.Transport.StatusException;
+import org.sonatype.ossindex.service.client.transport.UserAgentSupplier;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for {@link JdkHttpClientTransport}.
+ */
+public class JdkHttpClientTransportTest
+    extends TestSupport
+{
+  private static final String PAYLOAD = "{\"coordinates\":[\"pkg:maven/foo/bar@1\"]}";
+
+  private static final String RESPONSE = "[{\"coordinates\":\"pkg:maven/foo/bar@1\"}]";
+
+  private HttpServer server;
+
+  private final List<Headers> requestHeaders = new CopyOnWriteArrayList<>();
+
+  private final List<String> requestBodies = new CopyOnWriteArrayList<>();
+
+  private volatile int status = 200;
+
+  private URI url;
+
+  private JdkHttpClientTransport underTest;
+
+  @Before
+  public void setUp() throws Exception {
+    server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+    server.createContext("/", exchange -> {
+      try {
+        InputStream input = exchange.getRequestBody();
+        if ("gzip".equals(exchange.getRequestHeaders().getFirst("Content-Encoding"))) {
+          input = new GZIPInputStream(input);
+        }
+        requestHeaders.add(exchange.getRequestHeaders());
+        requestBodies.add(new String(input.readAllBytes(), StandardCharsets.UTF_8));
+
+        // always gzip the response when accepted
+        byte[] body = RESPONSE.getBytes(StandardCharsets.UTF_8);
+        String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+        if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+          ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+          try (OutputStream output = new GZIPOutputStream(buffer)) {
+            output.write(body);
+          }
+          body = buffer.toByteArray();
+          exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+        }
+        if (status != 200) {
+          exchange.getResponseHeaders().set("Retry-After", "5");
+        }
+        exchange.sendResponseHeaders(status, body.length);
+        exchange.getResponseBody().write(body);
+      }
+      finally {
+        exchange.close();
+      }
+    });
+    server.start();
+    url = URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/api/v3/component-report");
+
+    underTest = new JdkHttpClientTransport(new UserAgentSupplier("test", "1"));
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    if (underTest != null) {
+      underTest.close();
+    }
+    if (server != null) {
+      server.stop(0);
+    }
+  }
+
+  private static OssindexClientConfiguration configuration(final boolean requests, final boolean responses) {
+    CompressionConfiguration compression = new CompressionConfiguration();
+    compression.setRequests(requests);
+    compression.setResponses(responses);
+    OssindexClientConfiguration configuration = new OssindexClientConfiguration();
+    configuration.setCompressionConfiguration(compression);
+    return configuration;
+  }
+
+  @Test
+  public void post() throws Exception {
+    underTest.init(configuration(true, true));
+
+    assertEquals(RESPONSE, underTest.post(url, "application/json", PAYLOAD, "application/json"));
+    assertEquals(PAYLOAD, requestBodies.get(0));
+    assertEquals("gzip", requestHeaders.get(0).getFirst("Content-Encoding"));
+  }
+
+  @Test
+  public void postAsyncAppliesContentEncoding() throws Exception {
+    underTest.init(configuration(true, true));
+
+    assertEquals(RESPONSE, underTest.postAsync(url, "application/json", PAYLOAD, "application/json").get());
+    assertEquals(PAYLOAD, requestBodies.get(0));
+    assertEquals("gzip", requestHeaders.get(0).getFirst("Content-Encoding"));
+    assertTrue(requestHeaders.get(0).getFirst("Accept-Encoding").contains("gzip"));
+  }
+
+  @Test
+  public void postAsyncWithoutCompression() throws Exception {
+    underTest.init(configuration(false, false));
+
+    assertEquals(RESPONSE, underTest.postAsync(url, "application/json", PAYLOAD, "application/json").get());
+    assertEquals(PAYLOAD, requestBodies.get(0));
+    assertNull(requestHeaders.get(0).getFirst("Content-Encoding"));
+    assertNull(requestHeaders.get(0).getFirst("Accept-Encoding"));
+  }
+
+  @Test
+  public void unexpectedStatus() throws Exception {
+    status = 429;
+    underTest.init(configuration(false, true));
+
+    try {
+      underTest.post(url, "application/json", PAYLOAD, "application/json");
+      fail();
+    }
+    catch (StatusException e) {
+      assertEquals(429, e.getStatus());
+      assertEquals(5000, e.getRetryAfter());
+    }
+
+    try {
+      underTest.postAsync(url, "application/json", PAYLOAD, "application/json").get();
+      fail();
+    }
+    catch (ExecutionException e) {
+      assertTrue(e.getCause() instanceof StatusException);
+    }
+  }
+}
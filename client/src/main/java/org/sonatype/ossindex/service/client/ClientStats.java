@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2018-present Sonatype, Inc. All rights reserved.
+ *
+ * This program is licensed to you under the Apache License Version 2.0,
+ * and you may not use this file except in compliance with the Apache License Version 2.0.
+ * You may obtain a copy of the Apache License Version 2.0 at http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the Apache License Version 2.0 is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Apache License Version 2.0 for the specific language governing permissions and limitations there under.
+ */
+package org.sonatype.ossindex.service.client;
+
+import org.sonatype.ossindex.service.client.cache.CacheStats;
+
+import com.google.common.base.MoreObjects;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * {@link OssindexClient} statistics snapshot.
+ *
+ * @since 1.8.3
+ */
+public class ClientStats
+{
+  private final long batchCount;
+
+  private final long coordinateCount;
+
+  private final long bytesSent;
+
+  private final long bytesReceived;
+
+  private final long latencyMedian;
+
+  private final long latency90;
+
+  private final long latency99;
+
+  private final long latencyMax;
+
+  private final CacheStats cacheStats;
+
+  public ClientStats(final long batchCount,
+                     final long coordinateCount,
+                     final long bytesSent,
+                     final long bytesReceived,
+                     final long latencyMedian,
+                     final long latency90,
+                     final long latency99,
+                     final long latencyMax,
+                     final CacheStats cacheStats)
+  {
+    this.batchCount = batchCount;
+    this.coordinateCount = coordinateCount;
+    this.bytesSent = bytesSent;
+    this.bytesReceived = bytesReceived;
+    this.latencyMedian = latencyMedian;
+    this.latency90 = latency90;
+    this.latency99 = latency99;
+    this.latencyMax = latencyMax;
+    this.cacheStats = checkNotNull(cacheStats);
+  }
+
+  /**
+   * Returns the number of batch requests sent to the remote service; including retries.
+   */
+  public long getBatchCount() {
+    return batchCount;
+  }
+
+  /**
+   * Returns the number of coordinates requested from the remote service.
+   */
+  public long getCoordinateCount() {
+    return coordinateCount;
+  }
+
+  /**
+   * Returns the number of request payload bytes before compression.
+   */
+  public long getBytesSent() {
+    return bytesSent;
+  }
+
+  /**
+   * Returns the number of response payload bytes after decompression.
+   */
+  public long getBytesReceived() {
+    return bytesReceived;
+  }
+
+  /**
+   * Returns the median remote request latency in milliseconds.
+   */
+  public long getLatencyMedian() {
+    return latencyMedian;
+  }
+
+  /**
+   * Returns the 90th percentile remote request latency in milliseconds.
+   */
+  public long getLatency90() {
+    return latency90;
+  }
+
+  /**
+   * Returns the 99th percentile remote request latency in milliseconds.
+   */
+  public long getLatency99() {
+    return latency99;
+  }
+
+  public long getLatencyMax() {
+    return latencyMax;
+  }
+
+  public CacheStats getCacheStats() {
+    return cacheStats;
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("batchCount", batchCount)
+        .add("coordinateCount", coordinateCount)
+        .add("bytesSent", bytesSent)
+        .add("bytesReceived", bytesReceived)
+        .add("latencyMedian", latencyMedian)
+        .add("latency90", latency90)
+        .add("latency99", latency99)
+        .add("latencyMax", latencyMax)
+        .add("cacheStats", cacheStats)
+        .toString();
+  }
+}
@@ -16,9 +16,13 @@ import java.util.List;
 import java.util.Map;
 
 import org.sonatype.ossindex.service.api.componentreport.ComponentReport;
+import org.sonatype.ossindex.service.client.cache.CacheStats;
 
 import org.sonatype.goodies.packageurl.PackageUrl;
 
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+
 /**
  * Sonatype OSS Index client.
  *
@@ -36,4 +40,49 @@ public interface OssindexClient
    * Request component report for coordinates.
    */
   ComponentReport requestComponentReport(PackageUrl coordinates) throws Exception;
+
+  /**
+   * Request component reports for coordinates asynchronously.
+   *
+   * Reports which are all cached yield an already completed future.
+   *
+   * The default implementation requests reports on the calling thread and returns a completed future.
+   *
+   * @since 1.8.3
+   */
+  default ListenableFuture<Map<PackageUrl, ComponentReport>> requestComponentReportsAsync(
+      final List<PackageUrl> coordinates)
+  {
+    try {
+      return Futures.immediateFuture(requestComponentReports(coordinates));
+    }
+    catch (Exception e) {
+      return Futures.immediateFailedFuture(e);
+    }
+  }
+
+  /**
+   * Request component report for coordinates asynchronously.
+   *
+   * The default implementation requests the report on the calling thread and returns a completed future.
+   *
+   * @since 1.8.3
+   */
+  default ListenableFuture<ComponentReport> requestComponentReportAsync(final PackageUrl coordinates) {
+    try {
+      return Futures.immediateFuture(requestComponentReport(coordinates));
+    }
+    catch (Exception e) {
+      return Futures.immediateFailedFuture(e);
+    }
+  }
+
+  /**
+   * Returns statistics snapshot.
+   *
+   * @since 1.8.3
+   */
+  default ClientStats stats() {
+    return new ClientStats(0, 0, 0, 0, 0, 0, 0, 0, CacheStats.EMPTY);
+  }
 }
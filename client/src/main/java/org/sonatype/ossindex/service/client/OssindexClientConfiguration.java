@@ -13,14 +13,19 @@
 package org.sonatype.ossindex.service.client;
 
 import java.net.URI;
+import java.util.concurrent.Executor;
 
 import javax.annotation.Nullable;
 
 import org.sonatype.ossindex.service.client.cache.CacheConfiguration;
 import org.sonatype.ossindex.service.client.transport.AuthConfiguration;
+import org.sonatype.ossindex.service.client.transport.CompressionConfiguration;
+import org.sonatype.ossindex.service.client.transport.ConnectionPoolConfiguration;
 import org.sonatype.ossindex.service.client.transport.ProxyConfiguration;
+import org.sonatype.ossindex.service.client.transport.RateLimitConfiguration;
 import org.sonatype.ossindex.service.client.transport.TimeoutConfiguration;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 import static com.google.common.base.Preconditions.checkNotNull;
@@ -42,12 +47,55 @@ public class OssindexClientConfiguration
    */
   public static final int DEFAULT_BATCH_SIZE = 128;
 
+  /**
+   * Default maximum number of batches requested concurrently.
+   *
+   * @since 1.8.3
+   */
+  public static final int DEFAULT_MAX_CONCURRENT_BATCHES = 1;
+
+  /**
+   * Default round-trip time in milliseconds above which adaptive batch-size shrinks.
+   *
+   * @since 1.8.3
+   */
+  public static final long DEFAULT_TARGET_BATCH_LATENCY = 5 * 1000L;
+
+  /**
+   * Default response size in bytes above which adaptive batch-size shrinks.
+   *
+   * @since 1.8.3
+   */
+  public static final long DEFAULT_MAX_BATCH_RESPONSE_SIZE = 8 * 1024 * 1024L;
+
   @JsonProperty
   private URI baseUrl = DEFAULT_BASE_URL;
 
   @JsonProperty
   private int batchSize = DEFAULT_BATCH_SIZE;
 
+  @JsonProperty
+  private int maxConcurrentBatches = DEFAULT_MAX_CONCURRENT_BATCHES;
+
+  @JsonProperty
+  private boolean adaptiveBatchSize = false;
+
+  @JsonProperty
+  private long targetBatchLatency = DEFAULT_TARGET_BATCH_LATENCY;
+
+  @JsonProperty
+  private long maxBatchResponseSize = DEFAULT_MAX_BATCH_RESPONSE_SIZE;
+
+  @JsonProperty
+  private long staleAfter = -1;
+
+  @JsonProperty
+  private boolean staleWhileRevalidate = true;
+
+  @Nullable
+  @JsonIgnore
+  private Executor executor;
+
   @Nullable
   @JsonProperty("auth")
   private AuthConfiguration authConfiguration;
@@ -64,6 +112,22 @@ public class OssindexClientConfiguration
   @JsonProperty("timeout")
   private TimeoutConfiguration timeoutConfiguration;
 
+  @Nullable
+  @JsonProperty("connectionPool")
+  private ConnectionPoolConfiguration connectionPoolConfiguration;
+
+  @Nullable
+  @JsonProperty("compression")
+  private CompressionConfiguration compressionConfiguration;
+
+  @Nullable
+  @JsonProperty("rateLimit")
+  private RateLimitConfiguration rateLimitConfiguration;
+
+  @Nullable
+  @JsonProperty("refreshAhead")
+  private RefreshAheadConfiguration refreshAheadConfiguration;
+
   /**
    * Returns the base URL for the OSS Index service.
    */
@@ -100,6 +164,134 @@ public class OssindexClientConfiguration
     this.batchSize = batchSize;
   }
 
+  /**
+   * Returns the maximum number of batches requested concurrently.
+   *
+   * @since 1.8.3
+   */
+  public int getMaxConcurrentBatches() {
+    return maxConcurrentBatches;
+  }
+
+  /**
+   * Set the maximum number of batches requested concurrently; {@literal 1} requests batches serially.
+   *
+   * @since 1.8.3
+   */
+  public void setMaxConcurrentBatches(final int maxConcurrentBatches) {
+    this.maxConcurrentBatches = maxConcurrentBatches;
+  }
+
+  /**
+   * Returns true if batch-size adapts to observed round-trip time, response size and throttling.
+   *
+   * @since 1.8.3
+   */
+  public boolean isAdaptiveBatchSize() {
+    return adaptiveBatchSize;
+  }
+
+  /**
+   * Set whether batch-size is adaptive; {@link #getBatchSize()} is then only the initial size.
+   *
+   * @since 1.8.3
+   */
+  public void setAdaptiveBatchSize(final boolean adaptiveBatchSize) {
+    this.adaptiveBatchSize = adaptiveBatchSize;
+  }
+
+  /**
+   * Returns the round-trip time in milliseconds above which adaptive batch-size shrinks.
+   *
+   * @since 1.8.3
+   */
+  public long getTargetBatchLatency() {
+    return targetBatchLatency;
+  }
+
+  /**
+   * @since 1.8.3
+   */
+  public void setTargetBatchLatency(final long targetBatchLatency) {
+    this.targetBatchLatency = targetBatchLatency;
+  }
+
+  /**
+   * Returns the response size in bytes above which adaptive batch-size shrinks.
+   *
+   * @since 1.8.3
+   */
+  public long getMaxBatchResponseSize() {
+    return maxBatchResponseSize;
+  }
+
+  /**
+   * @since 1.8.3
+   */
+  public void setMaxBatchResponseSize(final long maxBatchResponseSize) {
+    this.maxBatchResponseSize = maxBatchResponseSize;
+  }
+
+  /**
+   * Returns the age in milliseconds after which cached reports are stale; disabled if negative.
+   *
+   * Stale reports are refreshed from the remote service, but are still used if that fails; until they expire from
+   * the cache, which is their hard time-to-live.
+   *
+   * @since 1.8.3
+   */
+  public long getStaleAfter() {
+    return staleAfter;
+  }
+
+  /**
+   * @since 1.8.3
+   */
+  public void setStaleAfter(final long staleAfter) {
+    this.staleAfter = staleAfter;
+  }
+
+  /**
+   * Returns true if stale reports are returned immediately and refreshed in the background; otherwise they are
+   * refreshed before returning.
+   *
+   * @since 1.8.3
+   */
+  public boolean isStaleWhileRevalidate() {
+    return staleWhileRevalidate;
+  }
+
+  /**
+   * @since 1.8.3
+   */
+  public void setStaleWhileRevalidate(final boolean staleWhileRevalidate) {
+    this.staleWhileRevalidate = staleWhileRevalidate;
+  }
+
+  /**
+   * Returns the executor used to request batches; or {@literal null} if not configured.
+   *
+   * @since 1.8.3
+   */
+  @Nullable
+  public Executor getExecutor() {
+    return executor;
+  }
+
+  /**
+   * Set the executor used to request batches; or {@literal null} to let the client manage its own threads.
+   *
+   * Asynchronous requests are completed on this executor.
+   *
+   * The client never runs more than {@link #getMaxConcurrentBatches()} batches on this executor at once,
+   * and does not shut it down when closed.
+   *
+   * @since 1.8.3
+   */
+  public void setExecutor(@Nullable final Executor executor) {
+    this.executor = executor;
+  }
+
   /**
    * Returns the authentication configuration; or {@literal null} if not configured.
    */
@@ -159,4 +351,80 @@ public class OssindexClientConfiguration
   public void setTimeoutConfiguration(@Nullable final TimeoutConfiguration timeoutConfiguration) {
     this.timeoutConfiguration = timeoutConfiguration;
   }
+
+  /**
+   * Returns the connection-pool configuration; or {@literal null} if not configured.
+   *
+   * @since 1.8.3
+   */
+  @Nullable
+  public ConnectionPoolConfiguration getConnectionPoolConfiguration() {
+    return connectionPoolConfiguration;
+  }
+
+  /**
+   * Set the connection-pool configuration; or {@literal null} for default.
+   *
+   * @since 1.8.3
+   */
+  public void setConnectionPoolConfiguration(@Nullable final ConnectionPoolConfiguration connectionPoolConfiguration) {
+    this.connectionPoolConfiguration = connectionPoolConfiguration;
+  }
+
+  /**
+   * Returns the content-compression configuration; or {@literal null} if not configured.
+   *
+   * @since 1.8.3
+   */
+  @Nullable
+  public CompressionConfiguration getCompressionConfiguration() {
+    return compressionConfiguration;
+  }
+
+  /**
+   * Set the content-compression configuration; or {@literal null} for default.
+   *
+   * @since 1.8.3
+   */
+  public void setCompressionConfiguration(@Nullable final CompressionConfiguration compressionConfiguration) {
+    this.compressionConfiguration = compressionConfiguration;
+  }
+
+  /**
+   * Returns the rate-limit configuration; or {@literal null} if not configured.
+   *
+   * @since 1.8.3
+   */
+  @Nullable
+  public RateLimitConfiguration getRateLimitConfiguration() {
+    return rateLimitConfiguration;
+  }
+
+  /**
+   * Set the rate-limit configuration; or {@literal null} for default.
+   *
+   * @since 1.8.3
+   */
+  public void setRateLimitConfiguration(@Nullable final RateLimitConfiguration rateLimitConfiguration) {
+    this.rateLimitConfiguration = rateLimitConfiguration;
+  }
+
+  /**
+   * Returns the refresh-ahead configuration; or {@literal null} if disabled.
+   *
+   * @since 1.8.3
+   */
+  @Nullable
+  public RefreshAheadConfiguration getRefreshAheadConfiguration() {
+    return refreshAheadConfiguration;
+  }
+
+  /**
+   * Set the refresh-ahead configuration; or {@literal null} to disable.
+   *
+   * @since 1.8.3
+   */
+  public void setRefreshAheadConfiguration(@Nullable final RefreshAheadConfiguration refreshAheadConfiguration) {
+    this.refreshAheadConfiguration = refreshAheadConfiguration;
+  }
 }
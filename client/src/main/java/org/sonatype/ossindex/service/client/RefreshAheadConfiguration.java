@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2018-present Sonatype, Inc. All rights reserved.
+ *
+ * This program is licensed to you under the Apache License Version 2.0,
+ * and you may not use this file except in compliance with the Apache License Version 2.0.
+ * You may obtain a copy of the Apache License Version 2.0 at http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the Apache License Version 2.0 is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Apache License Version 2.0 for the specific language governing permissions and limitations there under.
+ */
+package org.sonatype.ossindex.service.client;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Refresh-ahead configuration.
+ *
+ * Frequently requested reports are requested again in the background before they expire from the cache, so that
+ * requests for them do not miss.  Refresh requests are batched and throttled like any other request.
+ *
+ * Durations are in milliseconds.
+ *
+ * @since 1.8.3
+ */
+public class RefreshAheadConfiguration
+{
+  public static final long DEFAULT_REFRESH_AFTER = 10 * 60 * 60 * 1000L;
+
+  public static final int DEFAULT_MIN_ACCESS_COUNT = 2;
+
+  public static final long DEFAULT_INTERVAL = 60 * 1000L;
+
+  public static final int DEFAULT_MAX_TRACKED = 10000;
+
+  @JsonProperty
+  private long refreshAfter = DEFAULT_REFRESH_AFTER;
+
+  @JsonProperty
+  private int minAccessCount = DEFAULT_MIN_ACCESS_COUNT;
+
+  @JsonProperty
+  private long interval = DEFAULT_INTERVAL;
+
+  @JsonProperty
+  private int maxTracked = DEFAULT_MAX_TRACKED;
+
+  /**
+   * Returns the age after which frequently requested reports are refreshed; should be less than the cache expiration.
+   */
+  public long getRefreshAfter() {
+    return refreshAfter;
+  }
+
+  public void setRefreshAfter(final long refreshAfter) {
+    this.refreshAfter = refreshAfter;
+  }
+
+  /**
+   * Returns the number of requests since the last refresh for a report to be refreshed.
+   */
+  public int getMinAccessCount() {
+    return minAccessCount;
+  }
+
+  public void setMinAccessCount(final int minAccessCount) {
+    this.minAccessCount = minAccessCount;
+  }
+
+  /**
+   * Returns the interval at which reports due for refresh are collected.
+   */
+  public long getInterval() {
+    return interval;
+  }
+
+  public void setInterval(final long interval) {
+    this.interval = interval;
+  }
+
+  /**
+   * Returns the maximum number of coordinates tracked; least recently requested coordinates are dropped first.
+   */
+  public int getMaxTracked() {
+    return maxTracked;
+  }
+
+  public void setMaxTracked(final int maxTracked) {
+    this.maxTracked = maxTracked;
+  }
+}
@@ -0,0 +1,433 @@
+/*
+ * Copyright (c) 2018-present Sonatype, Inc. All rights reserved.
+ *
+ * This program is licensed to you under the Apache License Version 2.0,
+ * and you may not use this file except in compliance with the Apache License Version 2.0.
+ * You may obtain a copy of the Apache License Version 2.0 at http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the Apache License Version 2.0 is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Apache License Version 2.0 for the specific language governing permissions and limitations there under.
+ */
+package org.sonatype.ossindex.service.client.cache;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+import org.sonatype.goodies.packageurl.InvalidException;
+import org.sonatype.goodies.packageurl.PackageUrl;
+import org.sonatype.ossindex.service.api.componentreport.ComponentReport;
+import org.sonatype.ossindex.service.api.componentreport.ComponentReportVulnerability;
+import org.sonatype.ossindex.service.client.util.PackageUrlInterner;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.ByteStreams;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Binary {@link CacheCodec}.
+ *
+ * Compact field-tagged encoding of {@link ComponentReport} and its {@link ComponentReportVulnerability}s; cheaper to
+ * decode and smaller than JSON.  The remote service only speaks JSON.
+ *
+ * Content starts with a {@link #VERSION} byte; content of any other version fails to decode.  Each field is
+ * written as a varint tag, holding field-number and wire-type, followed by its value; absent fields are not written
+ * and a zero tag ends an object.  Fields of unknown number are skipped by wire-type.
+ *
+ * @since 1.8.3
+ */
+public class BinaryCacheCodec
+    implements CacheCodec
+{
+  /**
+   * Schema version; change when existing fields change meaning.
+   */
+  public static final byte VERSION = 1;
+
+  /**
+   * Upper bound of string lengths and element counts; guards allocation when reading corrupt content.
+   */
+  private static final int MAX_LENGTH = 16 * 1024 * 1024;
+
+  //
+  // Wire-types
+  //
+
+  private static final int VARINT = 0;
+
+  private static final int FIXED32 = 1;
+
+  /**
+   * Length-prefixed bytes.
+   */
+  private static final int BYTES = 2;
+
+  /**
+   * Nested fields; ended by zero tag.
+   */
+  private static final int OBJECT = 3;
+
+  /**
+   * Element wire-type, element count and elements.
+   */
+  private static final int ARRAY = 4;
+
+  private static final int END = 0;
+
+  //
+  // ComponentReport tags
+  //
+
+  private static final int REPORT_COORDINATES = 1 << 3 | BYTES;
+
+  private static final int REPORT_DESCRIPTION = 2 << 3 | BYTES;
+
+  private static final int REPORT_REFERENCE = 3 << 3 | BYTES;
+
+  private static final int REPORT_VULNERABILITIES = 4 << 3 | ARRAY;
+
+  private static final int REPORT_OSSI_SCORE = 5 << 3 | FIXED32;
+
+  //
+  // ComponentReportVulnerability tags
+  //
+
+  private static final int VULNERABILITY_ID = 1 << 3 | BYTES;
+
+  private static final int VULNERABILITY_DISPLAY_NAME = 2 << 3 | BYTES;
+
+  private static final int VULNERABILITY_TITLE = 3 << 3 | BYTES;
+
+  private static final int VULNERABILITY_DESCRIPTION = 4 << 3 | BYTES;
+
+  private static final int VULNERABILITY_CVSS_SCORE = 5 << 3 | FIXED32;
+
+  private static final int VULNERABILITY_CVSS_VECTOR = 6 << 3 | BYTES;
+
+  private static final int VULNERABILITY_CWE = 7 << 3 | BYTES;
+
+  private static final int VULNERABILITY_CVE = 8 << 3 | BYTES;
+
+  private static final int VULNERABILITY_REFERENCE = 9 << 3 | BYTES;
+
+  private static final int VULNERABILITY_VERSION_RANGES = 10 << 3 | ARRAY;
+
+  private static final int VULNERABILITY_EXTERNAL_REFERENCES = 11 << 3 | ARRAY;
+
+  //
+  // Encode
+  //
+
+  @Override
+  public void encode(final ComponentReport report, final OutputStream output) throws IOException {
+    checkNotNull(report);
+    checkNotNull(output);
+
+    DataOutputStream data = new DataOutputStream(output);
+    data.writeByte(VERSION);
+    writeReport(data, report);
+    data.flush();
+  }
+
+  private static void writeReport(final DataOutputStream output, final ComponentReport report) throws IOException {
+    if (report.getCoordinates() != null) {
+      writeString(output, REPORT_COORDINATES, PackageUrlInterner.render(report.getCoordinates()));
+    }
+    writeString(output, REPORT_DESCRIPTION, report.getDescription());
+    writeUri(output, REPORT_REFERENCE, report.getReference());
+    List<ComponentReportVulnerability> vulnerabilities = report.getVulnerabilities();
+    writeVarint(output, REPORT_VULNERABILITIES);
+    writeVarint(output, OBJECT);
+    writeVarint(output, vulnerabilities.size());
+    for (ComponentReportVulnerability vulnerability : vulnerabilities) {
+      writeVulnerability(output, vulnerability);
+    }
+    writeFloat(output, REPORT_OSSI_SCORE, report.getSonatypeOssiScore());
+    writeVarint(output, END);
+  }
+
+  private static void writeVulnerability(final DataOutputStream output,
+                                         final ComponentReportVulnerability vulnerability)
+      throws IOException
+  {
+    writeString(output, VULNERABILITY_ID, vulnerability.getId());
+    writeString(output, VULNERABILITY_DISPLAY_NAME, vulnerability.getDisplayName());
+    writeString(output, VULNERABILITY_TITLE, vulnerability.getTitle());
+    writeString(output, VULNERABILITY_DESCRIPTION, vulnerability.getDescription());
+    writeFloat(output, VULNERABILITY_CVSS_SCORE, vulnerability.getCvssScore());
+    writeString(output, VULNERABILITY_CVSS_VECTOR, vulnerability.getCvssVector());
+    writeString(output, VULNERABILITY_CWE, vulnerability.getCwe());
+    writeString(output, VULNERABILITY_CVE, vulnerability.getCve());
+    writeUri(output, VULNERABILITY_REFERENCE, vulnerability.getReference());
+
+    // absent version-ranges differ from empty; applicable only to version-less requests
+    List<String> versionRanges = vulnerability.getVersionRanges();
+    if (versionRanges != null) {
+      writeVarint(output, VULNERABILITY_VERSION_RANGES);
+      writeVarint(output, BYTES);
+      writeVarint(output, versionRanges.size());
+      for (String versionRange : versionRanges) {
+        writeBytes(output, versionRange);
+      }
+    }
+
+    List<URI> externalReferences = vulnerability.getExternalReferences();
+    writeVarint(output, VULNERABILITY_EXTERNAL_REFERENCES);
+    writeVarint(output, BYTES);
+    writeVarint(output, externalReferences.size());
+    for (URI externalReference : externalReferences) {
+      writeBytes(output, externalReference.toString());
+    }
+    writeVarint(output, END);
+  }
+
+  private static void writeString(final DataOutputStream output, final int tag, @Nullable final String value)
+      throws IOException
+  {
+    if (value != null) {
+      writeVarint(output, tag);
+      writeBytes(output, value);
+    }
+  }
+
+  private static void writeUri(final DataOutputStream output, final int tag, @Nullable final URI value)
+      throws IOException
+  {
+    if (value != null) {
+      writeString(output, tag, value.toString());
+    }
+  }
+
+  private static void writeFloat(final DataOutputStream output, final int tag, @Nullable final Float value)
+      throws IOException
+  {
+    if (value != null) {
+      writeVarint(output, tag);
+      output.writeInt(Float.floatToIntBits(value));
+    }
+  }
+
+  private static void writeBytes(final DataOutputStream output, final String value) throws IOException {
+    byte[] bytes = value.getBytes(Charsets.UTF_8);
+    writeVarint(output, bytes.length);
+    output.write(bytes);
+  }
+
+  private static void writeVarint(final DataOutputStream output, final int value) throws IOException {
+    int remaining = value;
+    while ((remaining & ~0x7F) != 0) {
+      output.writeByte((remaining & 0x7F) | 0x80);
+      remaining >>>= 7;
+    }
+    output.writeByte(remaining);
+  }
+
+  //
+  // Decode
+  //
+
+  @Override
+  public ComponentReport decode(final InputStream input) throws IOException {
+    checkNotNull(input);
+
+    DataInputStream data = new DataInputStream(input);
+    readVersion(data);
+    return readReport(data);
+  }
+
+  private static void readVersion(final DataInputStream input) throws IOException {
+    byte version = input.readByte();
+    if (version != VERSION) {
+      throw new IOException("Unsupported binary version: " + version);
+    }
+  }
+
+  private static ComponentReport readReport(final DataInputStream input) throws IOException {
+    ComponentReport report = new ComponentReport();
+    int tag;
+    while ((tag = readVarint(input)) != END) {
+      switch (tag) {
+        case REPORT_COORDINATES:
+          report.setCoordinates(parseCoordinates(readBytes(input)));
+          break;
+        case REPORT_DESCRIPTION:
+          report.setDescription(readBytes(input));
+          break;
+        case REPORT_REFERENCE:
+          report.setReference(parseUri(readBytes(input)));
+          break;
+        case REPORT_VULNERABILITIES: {
+          int count = readArray(input, OBJECT);
+          List<ComponentReportVulnerability> vulnerabilities = new ArrayList<>(count);
+          for (int i = 0; i < count; i++) {
+            vulnerabilities.add(readVulnerability(input));
+          }
+          report.setVulnerabilities(vulnerabilities);
+          break;
+        }
+        case REPORT_OSSI_SCORE:
+          report.setSonatypeOssiScore(Float.intBitsToFloat(input.readInt()));
+          break;
+        default:
+          skip(input, tag & 0x07);
+      }
+    }
+    return report;
+  }
+
+  private static ComponentReportVulnerability readVulnerability(final DataInputStream input) throws IOException {
+    ComponentReportVulnerability vulnerability = new ComponentReportVulnerability();
+    int tag;
+    while ((tag = readVarint(input)) != END) {
+      switch (tag) {
+        case VULNERABILITY_ID:
+          vulnerability.setId(readBytes(input));
+          break;
+        case VULNERABILITY_DISPLAY_NAME:
+          vulnerability.setDisplayName(readBytes(input));
+          break;
+        case VULNERABILITY_TITLE:
+          vulnerability.setTitle(readBytes(input));
+          break;
+        case VULNERABILITY_DESCRIPTION:
+          vulnerability.setDescription(readBytes(input));
+          break;
+        case VULNERABILITY_CVSS_SCORE:
+          vulnerability.setCvssScore(Float.intBitsToFloat(input.readInt()));
+          break;
+        case VULNERABILITY_CVSS_VECTOR:
+          vulnerability.setCvssVector(readBytes(input));
+          break;
+        case VULNERABILITY_CWE:
+          vulnerability.setCwe(readBytes(input));
+          break;
+        case VULNERABILITY_CVE:
+          vulnerability.setCve(readBytes(input));
+          break;
+        case VULNERABILITY_REFERENCE:
+          vulnerability.setReference(parseUri(readBytes(input)));
+          break;
+        case VULNERABILITY_VERSION_RANGES: {
+          int count = readArray(input, BYTES);
+          List<String> versionRanges = new ArrayList<>(count);
+          for (int i = 0; i < count; i++) {
+            versionRanges.add(readBytes(input));
+          }
+          vulnerability.setVersionRanges(versionRanges);
+          break;
+        }
+        case VULNERABILITY_EXTERNAL_REFERENCES: {
+          int count = readArray(input, BYTES);
+          List<URI> externalReferences = new ArrayList<>(count);
+          for (int i = 0; i < count; i++) {
+            externalReferences.add(parseUri(readBytes(input)));
+          }
+          vulnerability.setExternalReferences(externalReferences);
+          break;
+        }
+        default:
+          skip(input, tag & 0x07);
+      }
+    }
+    return vulnerability;
+  }
+
+  /**
+   * Read array prefix; returns element count.
+   */
+  private static int readArray(final DataInputStream input, final int elementType) throws IOException {
+    int type = readVarint(input);
+    if (type != elementType) {
+      throw new IOException("Unexpected element wire-type: " + type);
+    }
+    return readLength(input);
+  }
+
+  private static String readBytes(final DataInputStream input) throws IOException {
+    byte[] bytes = new byte[readLength(input)];
+    input.readFully(bytes);
+    return new String(bytes, Charsets.UTF_8);
+  }
+
+  private static int readLength(final DataInputStream input) throws IOException {
+    int length = readVarint(input);
+    if (length < 0 || length > MAX_LENGTH) {
+      throw new IOException("Invalid length: " + length);
+    }
+    return length;
+  }
+
+  private static int readVarint(final DataInputStream input) throws IOException {
+    int value = 0;
+    for (int shift = 0; shift < 32; shift += 7) {
+      int b = input.readUnsignedByte();
+      value |= (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new IOException("Malformed varint");
+  }
+
+  /**
+   * Skip value of given wire-type.
+   */
+  private static void skip(final DataInputStream input, final int type) throws IOException {
+    switch (type) {
+      case VARINT:
+        readVarint(input);
+        break;
+      case FIXED32:
+        input.readInt();
+        break;
+      case BYTES:
+        ByteStreams.skipFully(input, readLength(input));
+        break;
+      case OBJECT: {
+        int tag;
+        while ((tag = readVarint(input)) != END) {
+          skip(input, tag & 0x07);
+        }
+        break;
+      }
+      case ARRAY: {
+        int elementType = readVarint(input);
+        int count = readLength(input);
+        for (int i = 0; i < count; i++) {
+          skip(input, elementType);
+        }
+        break;
+      }
+      default:
+        throw new IOException("Unsupported wire-type: " + type);
+    }
+  }
+
+  private static PackageUrl parseCoordinates(final String value) throws IOException {
+    try {
+      return PackageUrlInterner.parse(value);
+    }
+    catch (InvalidException e) {
+      throw new IOException(e);
+    }
+  }
+
+  private static URI parseUri(final String value) throws IOException {
+    try {
+      return URI.create(value);
+    }
+    catch (IllegalArgumentException e) {
+      throw new IOException(e);
+    }
+  }
+}
@@ -12,6 +12,8 @@
  */
 package org.sonatype.ossindex.service.client.cache;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 import javax.annotation.Nullable;
@@ -33,8 +35,72 @@ public interface Cache
   @Nullable
   ComponentReport getIfPresent(PackageUrl coordinates);
 
+  /**
+   * Return cached reports for given coordinates; coordinates which are not cached are omitted.
+   *
+   * Implementations may override to resolve reports in bulk.
+   *
+   * @since 1.8.3
+   */
+  default Map<PackageUrl, ComponentReport> getAllPresent(Collection<PackageUrl> coordinates) {
+    Map<PackageUrl, ComponentReport> reports = new LinkedHashMap<>();
+    for (PackageUrl purl : coordinates) {
+      ComponentReport report = getIfPresent(purl);
+      if (report != null) {
+        reports.put(purl, report);
+      }
+    }
+    return reports;
+  }
+
+  /**
+   * Return cached entry for given coordinates or {@literal null} if not cached.
+   *
+   * @since 1.8.3
+   */
+  @Nullable
+  default CacheEntry getEntryIfPresent(PackageUrl coordinates) {
+    ComponentReport report = getIfPresent(coordinates);
+    return report != null ? new CacheEntry(report, CacheEntry.UNKNOWN_WRITE_TIME) : null;
+  }
+
+  /**
+   * Return cached entries for given coordinates; coordinates which are not cached are omitted.
+   *
+   * @since 1.8.3
+   */
+  default Map<PackageUrl, CacheEntry> getAllEntriesPresent(Collection<PackageUrl> coordinates) {
+    Map<PackageUrl, CacheEntry> entries = new LinkedHashMap<>();
+    for (Map.Entry<PackageUrl, ComponentReport> entry : getAllPresent(coordinates).entrySet()) {
+      entries.put(entry.getKey(), new CacheEntry(entry.getValue(), CacheEntry.UNKNOWN_WRITE_TIME));
+    }
+    return entries;
+  }
+
   /**
    * Add cached reports.
    */
   void putAll(Map<PackageUrl, ComponentReport> reports);
+
+  /**
+   * Add cached entries; implementations which record write-time should retain that of given entries.
+   *
+   * @since 1.8.3
+   */
+  default void putAllEntries(Map<PackageUrl, CacheEntry> entries) {
+    Map<PackageUrl, ComponentReport> reports = new LinkedHashMap<>();
+    for (Map.Entry<PackageUrl, CacheEntry> entry : entries.entrySet()) {
+      reports.put(entry.getKey(), entry.getValue().getReport());
+    }
+    putAll(reports);
+  }
+
+  /**
+   * Returns statistics snapshot; {@link CacheStats#EMPTY} if the cache does not record statistics.
+   *
+   * @since 1.8.3
+   */
+  default CacheStats stats() {
+    return CacheStats.EMPTY;
+  }
 }
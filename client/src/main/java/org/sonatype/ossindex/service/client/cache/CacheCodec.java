@@ -0,0 +1,37 @@
+/*
+ * Copyright (c) 2018-present Sonatype, Inc. All rights reserved.
+ *
+ * This program is licensed to you under the Apache License Version 2.0,
+ * and you may not use this file except in compliance with the Apache License Version 2.0.
+ * You may obtain a copy of the Apache License Version 2.0 at http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the Apache License Version 2.0 is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Apache License Version 2.0 for the specific language governing permissions and limitations there under.
+ */
+package org.sonatype.ossindex.service.client.cache;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import org.sonatype.ossindex.service.api.componentreport.ComponentReport;
+
+/**
+ * Byte-stream encoding of persisted cache entries.
+ *
+ * @since 1.8.3
+ */
+public interface CacheCodec
+{
+  /**
+   * Encode report to output stream; the stream is flushed but not closed.
+   */
+  void encode(ComponentReport report, OutputStream output) throws IOException;
+
+  /**
+   * Decode report from input stream; the stream is not closed.
+   */
+  ComponentReport decode(InputStream input) throws IOException;
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2018-present Sonatype, Inc. All rights reserved.
+ *
+ * This program is licensed to you under the Apache License Version 2.0,
+ * and you may not use this file except in compliance with the Apache License Version 2.0.
+ * You may obtain a copy of the Apache License Version 2.0 at http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the Apache License Version 2.0 is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Apache License Version 2.0 for the specific language governing permissions and limitations there under.
+ */
+package org.sonatype.ossindex.service.client.cache;
+
+import org.sonatype.ossindex.service.api.componentreport.ComponentReport;
+
+import com.google.common.base.MoreObjects;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Cached {@link ComponentReport} with the time it was written.
+ *
+ * @since 1.8.3
+ */
+public class CacheEntry
+{
+  /**
+   * Write-time of entries from caches which do not record it.
+   */
+  public static final long UNKNOWN_WRITE_TIME = -1;
+
+  private final ComponentReport report;
+
+  private final long writeTime;
+
+  public CacheEntry(final ComponentReport report, final long writeTime) {
+    this.report = checkNotNull(report);
+    this.writeTime = writeTime;
+  }
+
+  public ComponentReport getReport() {
+    return report;
+  }
+
+  /**
+   * Returns the write-time in milliseconds since epoch; or {@link #UNKNOWN_WRITE_TIME}.
+   */
+  public long getWriteTime() {
+    return writeTime;
+  }
+
+  /**
+   * Check if entry is older than given age at given time; entries with unknown write-time never are.
+   */
+  public boolean isOlderThan(final long age, final long now) {
+    return writeTime != UNKNOWN_WRITE_TIME && now - writeTime > age;
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("report", report)
+        .add("writeTime", writeTime)
+        .toString();
+  }
+}
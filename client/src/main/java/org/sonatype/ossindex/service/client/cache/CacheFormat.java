@@ -0,0 +1,31 @@
+/*
+ * Copyright (c) 2018-present Sonatype, Inc. All rights reserved.
+ *
+ * This program is licensed to you under the Apache License Version 2.0,
+ * and you may not use this file except in compliance with the Apache License Version 2.0.
+ * You may obtain a copy of the Apache License Version 2.0 at http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the Apache License Version 2.0 is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Apache License Version 2.0 for the specific language governing permissions and limitations there under.
+ */
+package org.sonatype.ossindex.service.client.cache;
+
+/**
+ * Format of persisted cache entries; independent of the format spoken with the remote service.
+ *
+ * @since 1.8.3
+ */
+public enum CacheFormat
+{
+  /**
+   * Entries are encoded with {@link JsonCacheCodec}, using the cache marshaller.
+   */
+  JSON,
+
+  /**
+   * Entries are encoded with {@link BinaryCacheCodec}; cheaper to decode and smaller than JSON.
+   */
+  BINARY
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2018-present Sonatype, Inc. All rights reserved.
+ *
+ * This program is licensed to you under the Apache License Version 2.0,
+ * and you may not use this file except in compliance with the Apache License Version 2.0.
+ * You may obtain a copy of the Apache License Version 2.0 at http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the Apache License Version 2.0 is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Apache License Version 2.0 for the specific language governing permissions and limitations there under.
+ */
+package org.sonatype.ossindex.service.client.cache;
+
+import com.google.common.base.MoreObjects;
+
+/**
+ * {@link Cache} statistics snapshot.
+ *
+ * @since 1.8.3
+ */
+public class CacheStats
+{
+  /**
+   * Returned for caches which do not record statistics.
+   */
+  public static final CacheStats EMPTY = new CacheStats(0, 0, 0, 0, -1, -1);
+
+  private final long hitCount;
+
+  private final long missCount;
+
+  private final long loadTime;
+
+  private final long evictionCount;
+
+  private final long size;
+
+  private final long bytes;
+
+  public CacheStats(final long hitCount,
+                    final long missCount,
+                    final long loadTime,
+                    final long evictionCount,
+                    final long size,
+                    final long bytes)
+  {
+    this.hitCount = hitCount;
+    this.missCount = missCount;
+    this.loadTime = loadTime;
+    this.evictionCount = evictionCount;
+    this.size = size;
+    this.bytes = bytes;
+  }
+
+  public long getHitCount() {
+    return hitCount;
+  }
+
+  public long getMissCount() {
+    return missCount;
+  }
+
+  public long getRequestCount() {
+    return hitCount + missCount;
+  }
+
+  /**
+   * Returns the ratio of lookups which were hits; {@literal 1.0} if there were no lookups.
+   */
+  public double getHitRate() {
+    long requests = getRequestCount();
+    return requests == 0 ? 1.0 : (double) hitCount / requests;
+  }
+
+  public double getMissRate() {
+    long requests = getRequestCount();
+    return requests == 0 ? 0.0 : (double) missCount / requests;
+  }
+
+  /**
+   * Returns the total nanoseconds spent loading entries; zero for caches which do not load from storage.
+   */
+  public long getLoadTime() {
+    return loadTime;
+  }
+
+  /**
+   * Returns the number of entries removed due to expiration or capacity.
+   */
+  public long getEvictionCount() {
+    return evictionCount;
+  }
+
+  /**
+   * Returns the number of entries; or {@literal -1} if unknown.
+   */
+  public long getSize() {
+    return size;
+  }
+
+  /**
+   * Returns the bytes used in storage; or {@literal -1} if unknown.
+   */
+  public long getBytes() {
+    return bytes;
+  }
+
+  /**
+   * Returns the sum of this and given statistics; unknown sizes remain unknown.
+   */
+  public CacheStats plus(final CacheStats other) {
+    return new CacheStats(
+        hitCount + other.hitCount,
+        missCount + other.missCount,
+        loadTime + other.loadTime,
+        evictionCount + other.evictionCount,
+        size < 0 || other.size < 0 ? -1 : size + other.size,
+        bytes < 0 || other.bytes < 0 ? -1 : bytes + other.bytes
+    );
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("hitCount", hitCount)
+        .add("missCount", missCount)
+        .add("loadTime", loadTime)
+        .add("evictionCount", evictionCount)
+        .add("size", size)
+        .add("bytes", bytes)
+        .toString();
+  }
+}
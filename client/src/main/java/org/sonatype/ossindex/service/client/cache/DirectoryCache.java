@@ -12,20 +12,53 @@
  */
 package org.sonatype.ossindex.service.client.cache;
 
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.RandomAccessFile;
-import java.io.Reader;
-import java.io.Writer;
 import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
 import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributeView;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
 
 import javax.annotation.Nullable;
 
@@ -35,13 +68,16 @@ import org.sonatype.ossindex.service.client.marshal.GsonMarshaller;
 import org.sonatype.ossindex.service.client.marshal.Marshaller;
 import org.sonatype.ossindex.service.client.util.FileLocker;
 import org.sonatype.ossindex.service.client.util.FileLocker.FileFunction;
+import org.sonatype.ossindex.service.client.util.PackageUrlInterner;
 import org.sonatype.ossindex.service.client.util.UserDataLocation;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.common.annotations.VisibleForTesting;
-import com.google.common.base.Charsets;
 import com.google.common.base.MoreObjects;
 import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
+import com.google.common.util.concurrent.Striped;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.joda.time.Duration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -53,7 +89,11 @@ import static com.google.common.base.Preconditions.checkState;
  * Directory {@link Cache}.
  *
  * Persistent report cache, storing cache entries into a segmented directory structure.
- * Expiration is done via file last-modified timestamp.
+ * Expiration is done via write-time and time-to-live recorded in each entry header; entries written without header by
+ * older versions expire via file last-modified timestamp.
+ * Entries are published by atomic move of a temporary file, so concurrent readers never observe a partial entry.
+ * An optional background sweeper removes expired entries and evicts least recently accessed entries beyond the
+ * configured size; one process at a time sweeps a shared directory.
  *
  * @since 1.1.0
  */
@@ -62,20 +102,91 @@ public class DirectoryCache
 {
   private static final Logger log = LoggerFactory.getLogger(DirectoryCache.class);
 
-  private final Marshaller marshaller;
+  private static final int LOCK_STRIPES = 64;
+
+  private static final String TEMP_SUFFIX = ".tmp";
+
+  private static final String SWEEP_LOCK = ".sweep.lock";
+
+  /**
+   * Age after which temporary files are considered abandoned by a failed writer.
+   */
+  private static final long TEMP_EXPIRE_AFTER = Duration.standardHours(1).getMillis();
+
+  /**
+   * Codec of JSON content; also of headerless entries written by older versions.
+   */
+  private final CacheCodec jsonCodec;
+
+  private final CacheCodec binaryCodec = new BinaryCacheCodec();
 
   private final Path baseDir;
 
   private final Duration expireAfter;
 
+  private final boolean durable;
+
+  private final boolean compress;
+
+  private final CacheFormat format;
+
+  private final long maxBytes;
+
+  private final long maxEntries;
+
+  /**
+   * Executor for bulk reads; or {@literal null} if reads are serial.
+   */
+  @Nullable
+  private final ThreadPoolExecutor reader;
+
+  @Nullable
+  private final ScheduledExecutorService sweeper;
+
+  /**
+   * Guards entries by key; orders expiration of stale entries with stores in this process.
+   */
+  private final Striped<ReadWriteLock> locks = Striped.readWriteLock(LOCK_STRIPES);
+
+  private final StatsCounter stats = new StatsCounter();
+
+  /**
+   * Running number of entries; seeded by walking the base-directory on first use and corrected by each sweep.
+   */
+  private final AtomicLong entryCount = new AtomicLong();
+
+  /**
+   * Running size of entries in bytes; maintained with {@link #entryCount}.
+   */
+  private final AtomicLong entryBytes = new AtomicLong();
+
+  private volatile boolean counted;
+
   private volatile boolean closed;
 
   public DirectoryCache(final Marshaller marshaller, final Configuration config) throws IOException {
     checkNotNull(config);
-    this.marshaller = checkNotNull(marshaller);
+    this.jsonCodec = new JsonCacheCodec(checkNotNull(marshaller));
 
     this.baseDir = checkNotNull(config.getBaseDir(), "Missing required base-directory");
     this.expireAfter = checkNotNull(config.getExpireAfter(), "Missing required expiration duration");
+    this.durable = config.isDurable();
+    this.compress = config.isCompress();
+    this.format = checkNotNull(config.getFormat(), "Missing required format");
+    this.maxBytes = config.getMaxBytes();
+    this.maxEntries = config.getMaxEntries();
+
+    if (config.getReadThreads() > 1) {
+      this.reader = new ThreadPoolExecutor(config.getReadThreads(), config.getReadThreads(), 60, TimeUnit.SECONDS,
+          new LinkedBlockingQueue<Runnable>(), new ThreadFactoryBuilder()
+          .setNameFormat("ossindex-cache-reader-%d")
+          .setDaemon(true)
+          .build());
+      reader.allowCoreThreadTimeOut(true);
+    }
+    else {
+      this.reader = null;
+    }
 
     if (!Files.exists(baseDir)) {
       Files.createDirectories(baseDir);
@@ -84,9 +195,37 @@ public class DirectoryCache
       checkState(Files.isDirectory(baseDir), "Not a directory: %s", baseDir);
     }
 
+    Duration sweepInterval = config.getSweepInterval();
+    if (sweepInterval != null && sweepInterval.getMillis() > 0) {
+      this.sweeper = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+          .setNameFormat("ossindex-cache-sweeper")
+          .setDaemon(true)
+          .build());
+      sweeper.scheduleWithFixedDelay(new Runnable()
+      {
+        @Override
+        public void run() {
+          try {
+            sweep();
+          }
+          catch (Exception e) {
+            log.warn("Sweep failed", e);
+          }
+        }
+      }, sweepInterval.getMillis(), sweepInterval.getMillis(), TimeUnit.MILLISECONDS);
+    }
+    else {
+      this.sweeper = null;
+    }
+
     log.debug("Marshaller: {}", marshaller);
     log.debug("Base-directory: {}", baseDir);
     log.debug("Expire after: {}", expireAfter);
+    log.debug("Durable: {}", durable);
+    log.debug("Compress: {}", compress);
+    log.debug("Format: {}", format);
+    log.debug("Read threads: {}", config.getReadThreads());
+    log.debug("Sweep interval: {}, max-bytes: {}, max-entries: {}", sweepInterval, maxBytes, maxEntries);
   }
 
   private void ensureNotClosed() {
@@ -96,6 +235,12 @@ public class DirectoryCache
   @Override
   public synchronized void close() throws Exception {
     closed = true;
+    if (sweeper != null) {
+      sweeper.shutdownNow();
+    }
+    if (reader != null) {
+      reader.shutdown();
+    }
   }
 
   @Override
@@ -103,41 +248,239 @@ public class DirectoryCache
     return MoreObjects.toStringHelper(this)
         .add("baseDir", baseDir)
         .add("expireAfter", expireAfter)
+        .add("durable", durable)
+        .add("compress", compress)
+        .add("format", format)
+        .add("maxBytes", maxBytes)
+        .add("maxEntries", maxEntries)
         .toString();
   }
 
   @Nullable
   @Override
-  public synchronized ComponentReport getIfPresent(final PackageUrl coordinates) {
+  public ComponentReport getIfPresent(final PackageUrl coordinates) {
+    CacheEntry entry = getEntryIfPresent(coordinates);
+    return entry != null ? entry.getReport() : null;
+  }
+
+  /**
+   * A hit is a single open and read of the entry file; in bounded mode its access time is also updated for eviction.
+   * Write-time of entries written without header by older versions is their last-modified timestamp.
+   *
+   * @since 1.8.3
+   */
+  @Nullable
+  @Override
+  public CacheEntry getEntryIfPresent(final PackageUrl coordinates) {
     checkNotNull(coordinates);
     ensureNotClosed();
 
-    Path file = entryFile(coordinates);
-    if (Files.exists(file)) {
+    String key = entryKey(coordinates);
+    Path file = entryFile(key);
+    CacheEntry entry = null;
+    boolean stale = false;
+    long start = System.nanoTime();
+    Lock lock = locks.get(key).readLock();
+    lock.lock();
+    try {
+      entry = loadEntry(file);
+      stale = entry == null;
+      if (entry != null && isBounded()) {
+        touch(file);
+      }
+    }
+    catch (NoSuchFileException e) {
+      log.trace("Missing entry: {}", file);
+    }
+    catch (IOException e) {
+      log.warn("Failed to load entry: {}", file, e);
+    }
+    finally {
+      lock.unlock();
+      stats.recordLoadTime(System.nanoTime() - start);
+    }
+
+    // expired or corrupt entry is deleted under the write-lock
+    if (stale) {
       try {
-        return loadEntry(file);
+        if (deleteStaleEntry(file)) {
+          log.trace("Expired entry: {}", file);
+        }
       }
       catch (IOException e) {
-        log.warn("Failed to load entry: {}", file, e);
+        log.warn("Failed to delete entry: {}", file, e);
       }
     }
 
-    return null;
+    if (entry != null) {
+      stats.recordHit();
+    }
+    else {
+      stats.recordMiss();
+    }
+    return entry;
+  }
+
+  /**
+   * Size and bytes are maintained as entries are stored and deleted; they are computed by walking the base-directory
+   * only on first use, and are approximate when the directory is shared with other processes until the next sweep.
+   *
+   * @since 1.8.3
+   */
+  @Override
+  public CacheStats stats() {
+    if (!counted && !countEntries()) {
+      return stats.snapshot(-1, -1);
+    }
+    return stats.snapshot(entryCount.get(), entryBytes.get());
+  }
+
+  /**
+   * Seed running totals by walking the base-directory.
+   */
+  private synchronized boolean countEntries() {
+    if (counted) {
+      return true;
+    }
+    final long[] totals = new long[2];
+    try {
+      Files.walkFileTree(baseDir, new SimpleFileVisitor<Path>()
+      {
+        @Override
+        public FileVisitResult visitFile(final Path file, final BasicFileAttributes attributes) {
+          String name = file.getFileName().toString();
+          if (attributes.isRegularFile() && !name.endsWith(TEMP_SUFFIX) && !name.startsWith(".")) {
+            totals[0]++;
+            totals[1] += attributes.size();
+          }
+          return FileVisitResult.CONTINUE;
+        }
+
+        @Override
+        public FileVisitResult visitFileFailed(final Path file, final IOException e) {
+          // entry may have been replaced or deleted meanwhile
+          return FileVisitResult.CONTINUE;
+        }
+      });
+    }
+    catch (IOException e) {
+      log.warn("Failed to compute size of: {}", baseDir, e);
+      return false;
+    }
+    entryCount.set(totals[0]);
+    entryBytes.set(totals[1]);
+    counted = true;
+    return true;
+  }
+
+  private void updateTotals(final long count, final long bytes) {
+    entryCount.addAndGet(count);
+    entryBytes.addAndGet(bytes);
+  }
+
+  /**
+   * Returns size of file; or {@literal -1} if missing.
+   */
+  private static long size(final Path file) throws IOException {
+    try {
+      return Files.size(file);
+    }
+    catch (NoSuchFileException e) {
+      return -1;
+    }
+  }
+
+  /**
+   * Entries are read in parallel when configured with more than one read thread.
+   *
+   * @since 1.8.3
+   */
+  @Override
+  public Map<PackageUrl, ComponentReport> getAllPresent(final Collection<PackageUrl> coordinates) {
+    Map<PackageUrl, ComponentReport> reports = new LinkedHashMap<>();
+    for (Map.Entry<PackageUrl, CacheEntry> entry : getAllEntriesPresent(coordinates).entrySet()) {
+      reports.put(entry.getKey(), entry.getValue().getReport());
+    }
+    return reports;
   }
 
+  /**
+   * Entries are read in parallel when configured with more than one read thread.
+   *
+   * @since 1.8.3
+   */
   @Override
-  public synchronized void putAll(final Map<PackageUrl, ComponentReport> reports) {
+  public Map<PackageUrl, CacheEntry> getAllEntriesPresent(final Collection<PackageUrl> coordinates) {
+    checkNotNull(coordinates);
+    ensureNotClosed();
+
+    Collection<PackageUrl> unique = new LinkedHashSet<>(coordinates);
+    Map<PackageUrl, CacheEntry> entries = new LinkedHashMap<>();
+    if (reader == null || unique.size() < 2) {
+      for (PackageUrl purl : unique) {
+        CacheEntry entry = getEntryIfPresent(purl);
+        if (entry != null) {
+          entries.put(purl, entry);
+        }
+      }
+      return entries;
+    }
+
+    List<Callable<CacheEntry>> tasks = new ArrayList<>(unique.size());
+    for (final PackageUrl purl : unique) {
+      tasks.add(new Callable<CacheEntry>()
+      {
+        @Override
+        public CacheEntry call() {
+          return getEntryIfPresent(purl);
+        }
+      });
+    }
+
+    List<Future<CacheEntry>> futures;
+    try {
+      futures = reader.invokeAll(tasks);
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return entries;
+    }
+
+    int i = 0;
+    for (PackageUrl purl : unique) {
+      try {
+        CacheEntry entry = futures.get(i++).get();
+        if (entry != null) {
+          entries.put(purl, entry);
+        }
+      }
+      catch (InterruptedException | ExecutionException e) {
+        // treat as missing; cache lookups never fail a request
+        log.warn("Failed to load entry: {}", purl, e);
+      }
+    }
+    return entries;
+  }
+
+  @Override
+  public void putAll(final Map<PackageUrl, ComponentReport> reports) {
     checkNotNull(reports);
     ensureNotClosed();
 
     for (Map.Entry<PackageUrl, ComponentReport> entry : reports.entrySet()) {
-      Path file = entryFile(entry.getKey());
+      String key = entryKey(entry.getKey());
+      Path file = entryFile(key);
+      Lock lock = locks.get(key).writeLock();
+      lock.lock();
       try {
         storeEntry(entry.getValue(), file);
       }
       catch (IOException e) {
         log.warn("Failed to store entry: {}", file, e);
       }
+      finally {
+        lock.unlock();
+      }
     }
   }
 
@@ -146,15 +489,14 @@ public class DirectoryCache
    */
   private String entryKey(final PackageUrl coordinates) {
     return Hashing.sha1()
-        .hashUnencodedChars(coordinates.toString())
+        .hashUnencodedChars(PackageUrlInterner.render(coordinates))
         .toString();
   }
 
   /**
    * Returns cache entry file reference.
    */
-  private Path entryFile(final PackageUrl coordinates) {
-    String key = entryKey(coordinates);
+  private Path entryFile(final String key) {
     Path path = Paths.get(key.substring(0, 2), key.substring(2, 4), key);
     return baseDir.resolve(path);
   }
@@ -164,59 +506,79 @@ public class DirectoryCache
   //
 
   /**
-   * Load entry from given file.  If entry has expired returns {@literal null}.
+   * Load entry from given file.  If entry has expired or is corrupt returns {@literal null}; the caller is responsible
+   * for deleting it.
+   *
+   * Entries are only ever replaced atomically, so readers always observe a complete entry without file-locking.
    */
   @Nullable
-  private ComponentReport loadEntry(final Path file) throws IOException {
+  private CacheEntry loadEntry(final Path file) throws IOException {
     log.trace("Loading entry: {}", file);
 
-    // file is assumed to exist at this point
-    return FileLocker.readLock(file, new FileFunction<ComponentReport>()
-    {
-      @Override
-      public ComponentReport apply(final RandomAccessFile raf) throws IOException {
-        ComponentReport report = null;
-        boolean delete = false;
-
-        if (isEntryStale(file)) {
-          log.trace("Expiring entry: {}", file);
-          delete = true;
-        }
-        else {
-          try {
-            // RAF close will clean up resources
-            Reader reader = new BufferedReader(Channels.newReader(raf.getChannel(), Charsets.UTF_8.name()));
-            report = marshaller.unmarshal(reader, ComponentReport.class);
-          }
-          catch (IOException e) {
-            // delete if we are unable to marshal
-            log.warn("Corrupt entry: {}", file, e);
-            delete = true;
-          }
-        }
+    try (InputStream input = new BufferedInputStream(Files.newInputStream(file))) {
+      CacheEntry entry = readEntry(input, file);
+      if (entry == null) {
+        log.trace("Expiring entry: {}", file);
+      }
+      return entry;
+    }
+    catch (NoSuchFileException e) {
+      throw e;
+    }
+    catch (IOException e) {
+      // delete if we are unable to decode
+      log.warn("Corrupt entry: {}", file, e);
+      return null;
+    }
+  }
 
-        if (delete) {
-          // close file handle to allow deletion
-          raf.close();
+  /**
+   * Read entry of given file; or {@literal null} if stale.
+   */
+  @Nullable
+  private CacheEntry readEntry(final InputStream input, final Path file) throws IOException {
+    // headerless entries written by older versions start directly with JSON content; only these need a stat
+    input.mark(1);
+    int first = input.read();
+    input.reset();
+    if (first == '{') {
+      long lastModified = Files.getLastModifiedTime(file).toMillis();
+      if (isEntryStale(lastModified)) {
+        return null;
+      }
+      ComponentReport report = jsonCodec.decode(input);
+      return new CacheEntry(report, lastModified);
+    }
 
-          // sanity check; file should exist but do not fail if missing
-          Files.deleteIfExists(file);
-        }
+    DataInputStream data = new DataInputStream(input);
+    Header header = Header.read(data);
+    if (header.isStale(System.currentTimeMillis(), expireAfter.getMillis())) {
+      return null;
+    }
 
-        return report;
-      }
-    });
+    // content format is recorded per entry; entries are readable whichever format is configured
+    CacheCodec codec = header.isBinary() ? binaryCodec : jsonCodec;
+    InputStream content = ByteStreams.limit(data, header.length);
+    if (header.isDeflated()) {
+      content = new InflaterInputStream(content);
+    }
+    ComponentReport report;
+    try {
+      report = codec.decode(content);
+    }
+    finally {
+      content.close();
+    }
+    return new CacheEntry(report, header.writeTime);
   }
 
   /**
-   * Check if given entry is stale and should be expired.
+   * Check if given headerless entry is stale and should be expired.
    */
-  private boolean isEntryStale(final Path file) throws IOException {
-    BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
-    FileTime lastModified = attributes.lastModifiedTime();
+  private boolean isEntryStale(final long lastModified) {
     log.trace("Last-modified: {}", lastModified);
 
-    long age = System.currentTimeMillis() - lastModified.toMillis();
+    long age = System.currentTimeMillis() - lastModified;
     log.trace("Age: {} ms", age);
 
     return age > expireAfter.getMillis();
@@ -228,56 +590,467 @@ public class DirectoryCache
 
   /**
    * Store entry to given file.
+   *
+   * Entry is written to a temporary file in the same directory and then moved into place atomically.
    */
   private void storeEntry(final ComponentReport report, final Path file) throws IOException {
     log.trace("Storing entry: {} -> {}", report, file);
 
     // prepare directory structure
-    Files.createDirectories(file.getParent());
+    Path dir = file.getParent();
+    Files.createDirectories(dir);
+
+    // render content first; header records its length
+    ByteArrayOutputStream content = new ByteArrayOutputStream();
+    byte flags = 0;
+    CacheCodec codec = jsonCodec;
+    if (format == CacheFormat.BINARY) {
+      codec = binaryCodec;
+      flags |= Header.FLAG_BINARY;
+    }
+    if (compress) {
+      try (OutputStream output = new DeflaterOutputStream(content)) {
+        codec.encode(report, output);
+      }
+      flags |= Header.FLAG_DEFLATE;
+    }
+    else {
+      codec.encode(report, content);
+    }
+
+    Path temp = createTempFile(file);
+    try {
+      try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+        // channel close will clean up resources
+        DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+        new Header(System.currentTimeMillis(), expireAfter.getMillis(), flags, content.size()).write(output);
+        content.writeTo(output);
+        output.flush();
+        if (durable) {
+          channel.force(true);
+        }
+      }
+      long previous = size(file);
+      long size = Files.size(temp);
+      move(temp, file);
+      if (previous < 0) {
+        updateTotals(1, size);
+      }
+      else {
+        updateTotals(0, size - previous);
+      }
+    }
+    catch (IOException e) {
+      Files.deleteIfExists(temp);
+      throw e;
+    }
+    if (durable) {
+      // rename is only durable once the directory entry is
+      force(dir);
+    }
+  }
+
+  /**
+   * Create temporary file next to given file.
+   *
+   * Unlike {@link Files#createTempFile}, which restricts permissions to the owner, the file is created with default
+   * permissions so entries remain readable when the directory is shared.
+   */
+  private static Path createTempFile(final Path file) throws IOException {
+    while (true) {
+      Path temp = file.resolveSibling(
+          file.getFileName() + "." + Long.toHexString(ThreadLocalRandom.current().nextLong()) + TEMP_SUFFIX);
+      try {
+        return Files.createFile(temp);
+      }
+      catch (FileAlreadyExistsException e) {
+        log.trace("Temporary file exists: {}", temp);
+      }
+    }
+  }
+
+  /**
+   * Force directory to storage; not supported by all platforms.
+   */
+  private static void force(final Path dir) {
+    try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+      channel.force(true);
+    }
+    catch (IOException e) {
+      log.trace("Unable to force directory: {}", dir, e);
+    }
+  }
+
+  /**
+   * Replace target with source; atomically if supported by the file-system.
+   */
+  private static void move(final Path source, final Path target) throws IOException {
+    try {
+      Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+    catch (AtomicMoveNotSupportedException e) {
+      log.trace("Atomic move not supported: {}", target, e);
+      Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+    }
+  }
+
+  /**
+   * Purge entry for coordinates.
+   *
+   * @since 1.3.0
+   */
+  @VisibleForTesting
+  void purgeEntry(final PackageUrl coordinates) throws IOException {
+    Path file = entryFile(entryKey(coordinates));
+    log.trace("Purge entry: {}", file);
+    long size = size(file);
+    if (Files.deleteIfExists(file)) {
+      updateTotals(-1, -Math.max(size, 0));
+    }
+  }
+
+  //
+  // Sweeping
+  //
+
+  private boolean isBounded() {
+    return maxBytes > 0 || maxEntries > 0;
+  }
 
-    // maybe create file; must exist for locking
+  /**
+   * Record access; eviction is by last-access time, which is set explicitly as file-systems may not maintain it.
+   */
+  private void touch(final Path file) {
+    try {
+      Files.getFileAttributeView(file, BasicFileAttributeView.class)
+          .setTimes(null, FileTime.fromMillis(System.currentTimeMillis()), null);
+    }
+    catch (IOException e) {
+      log.trace("Failed to touch entry: {}", file, e);
+    }
+  }
+
+  /**
+   * Remove expired entries and abandoned temporary files, then evict least recently accessed entries until within
+   * bounds.  Skipped if another process is already sweeping.
+   */
+  @VisibleForTesting
+  void sweep() throws Exception {
+    Path lockFile = baseDir.resolve(SWEEP_LOCK);
     try {
-      Files.createFile(file);
+      Files.createFile(lockFile);
     }
     catch (FileAlreadyExistsException e) {
       // ignore
-      log.trace("File already exists: {}", file, e);
     }
 
-    FileLocker.writeLock(file, new FileFunction<Void>()
+    Boolean swept = FileLocker.tryLock(lockFile, false, new FileFunction<Boolean>()
     {
       @Override
-      public Void apply(final RandomAccessFile raf) throws IOException {
+      public Boolean apply(final RandomAccessFile file) throws IOException {
         try {
-          // RAF close will clean up resources
-          Writer writer = new BufferedWriter(Channels.newWriter(raf.getChannel(), Charsets.UTF_8.name()));
-          marshaller.marshal(report, writer);
-          writer.flush();
+          doSweep();
         }
-        catch (IOException e) {
-          log.warn("Failed to store entry: {}", file, e);
+        catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        return true;
+      }
+    });
+    if (swept == null) {
+      log.debug("Sweep in progress elsewhere");
+    }
+  }
 
-          // close file handle to allow deletion
-          raf.close();
+  private void doSweep() throws IOException, InterruptedException {
+    final long now = System.currentTimeMillis();
+    log.debug("Sweeping: {}", baseDir);
 
-          // sanity check; file should exist but do not fail if missing
-          Files.deleteIfExists(file);
+    // walk top-level shards in parallel
+    List<Callable<List<SweepEntry>>> tasks = new ArrayList<>();
+    try (DirectoryStream<Path> shards = Files.newDirectoryStream(baseDir)) {
+      for (final Path shard : shards) {
+        if (Files.isDirectory(shard)) {
+          tasks.add(new Callable<List<SweepEntry>>()
+          {
+            @Override
+            public List<SweepEntry> call() throws IOException {
+              return sweepShard(shard, now);
+            }
+          });
         }
-        return null;
+      }
+    }
+
+    List<SweepEntry> entries = new ArrayList<>();
+    boolean complete = true;
+    if (reader != null) {
+      for (Future<List<SweepEntry>> future : reader.invokeAll(tasks)) {
+        try {
+          entries.addAll(future.get());
+        }
+        catch (ExecutionException e) {
+          log.warn("Failed to sweep shard", e.getCause());
+          complete = false;
+        }
+      }
+    }
+    else {
+      for (Callable<List<SweepEntry>> task : tasks) {
+        try {
+          entries.addAll(task.call());
+        }
+        catch (Exception e) {
+          log.warn("Failed to sweep shard", e);
+          complete = false;
+        }
+      }
+    }
+
+    long bytes = 0;
+    for (SweepEntry entry : entries) {
+      bytes += entry.size;
+    }
+    long count = entries.size();
+
+    // correct running totals for changes made by other processes, unless the walk was incomplete; evictions below
+    // are applied as entries are deleted
+    if (complete) {
+      synchronized (this) {
+        entryCount.set(count);
+        entryBytes.set(bytes);
+        counted = true;
+      }
+    }
+
+    if (!isBounded()) {
+      return;
+    }
+
+    Collections.sort(entries, new Comparator<SweepEntry>()
+    {
+      @Override
+      public int compare(final SweepEntry a, final SweepEntry b) {
+        return Long.compare(a.accessed, b.accessed);
       }
     });
+    for (SweepEntry entry : entries) {
+      if ((maxBytes <= 0 || bytes <= maxBytes) && (maxEntries <= 0 || count <= maxEntries)) {
+        break;
+      }
+      if (deleteEntry(entry.file, entry.modified)) {
+        log.trace("Evicted entry: {}", entry.file);
+      }
+      bytes -= entry.size;
+      count--;
+    }
   }
 
   /**
-   * Purge entry for coordinates.
+   * Remove expired entries of shard; returns remaining entries.
+   */
+  private List<SweepEntry> sweepShard(final Path shard, final long now) throws IOException {
+    final List<SweepEntry> entries = new ArrayList<>();
+    Files.walkFileTree(shard, new SimpleFileVisitor<Path>()
+    {
+      @Override
+      public FileVisitResult visitFile(final Path file, final BasicFileAttributes attributes) throws IOException {
+        long modified = attributes.lastModifiedTime().toMillis();
+        if (file.getFileName().toString().endsWith(TEMP_SUFFIX)) {
+          if (now - modified > TEMP_EXPIRE_AFTER) {
+            log.trace("Deleting abandoned file: {}", file);
+            Files.deleteIfExists(file);
+          }
+        }
+        else if (now - modified > expireAfter.getMillis()) {
+          if (deleteEntry(file, modified)) {
+            log.trace("Expired entry: {}", file);
+          }
+        }
+        else {
+          long accessed = Math.max(modified, attributes.lastAccessTime().toMillis());
+          entries.add(new SweepEntry(file, modified, accessed, attributes.size()));
+        }
+        return FileVisitResult.CONTINUE;
+      }
+
+      @Override
+      public FileVisitResult visitFileFailed(final Path file, final IOException e) {
+        // entry may have been replaced or deleted meanwhile
+        return FileVisitResult.CONTINUE;
+      }
+    });
+    return entries;
+  }
+
+  /**
+   * Delete entry unless it has been replaced since it was visited.
+   */
+  private boolean deleteEntry(final Path file, final long modified) throws IOException {
+    Lock lock = locks.get(file.getFileName().toString()).writeLock();
+    lock.lock();
+    try {
+      BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+      if (attributes.lastModifiedTime().toMillis() != modified) {
+        return false;
+      }
+      Files.delete(file);
+      updateTotals(-1, -attributes.size());
+      stats.recordEviction();
+      return true;
+    }
+    catch (NoSuchFileException e) {
+      return false;
+    }
+    finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Delete entry if it is still expired or corrupt; re-checked under the write-lock as it may have been replaced since
+   * it was read.
+   */
+  private boolean deleteStaleEntry(final Path file) throws IOException {
+    Lock lock = locks.get(file.getFileName().toString()).writeLock();
+    lock.lock();
+    try {
+      long size = Files.size(file);
+      try (InputStream input = new BufferedInputStream(Files.newInputStream(file))) {
+        if (readEntry(input, file) != null) {
+          return false;
+        }
+      }
+      catch (NoSuchFileException e) {
+        throw e;
+      }
+      catch (IOException e) {
+        log.trace("Corrupt entry: {}", file, e);
+      }
+      Files.delete(file);
+      updateTotals(-1, -size);
+      stats.recordEviction();
+      return true;
+    }
+    catch (NoSuchFileException e) {
+      return false;
+    }
+    finally {
+      lock.unlock();
+    }
+  }
+
+  private static class SweepEntry
+  {
+    private final Path file;
+
+    private final long modified;
+
+    private final long accessed;
+
+    private final long size;
+
+    private SweepEntry(final Path file, final long modified, final long accessed, final long size) {
+      this.file = file;
+      this.modified = modified;
+      this.accessed = accessed;
+      this.size = size;
+    }
+  }
+
+  //
+  // Entry format
+  //
+
+  /**
+   * Entry header.
    *
-   * @since 1.3.0
+   * Fixed size; followed by {@link #length} bytes of content.  Content is UTF-8 encoded JSON, or binary if
+   * {@link #FLAG_BINARY} is set; and is compressed if {@link #FLAG_DEFLATE} is set.  Entries with unknown flags are
+   * treated as corrupt.
    */
-  @VisibleForTesting
-  void purgeEntry(final PackageUrl coordinates) throws IOException {
-    Path file = entryFile(coordinates);
-    log.trace("Purge entry: {}", file);
-    Files.deleteIfExists(file);
+  private static class Header
+  {
+    /**
+     * Never the leading bytes of a headerless JSON entry.
+     */
+    private static final int MAGIC = 0x4F495843;
+
+    private static final byte VERSION = 1;
+
+    /**
+     * Content is compressed with {@link java.util.zip.Deflater}.
+     */
+    private static final byte FLAG_DEFLATE = 0x01;
+
+    /**
+     * Content is encoded with {@link BinaryCacheCodec}.
+     */
+    private static final byte FLAG_BINARY = 0x02;
+
+    private static final byte KNOWN_FLAGS = FLAG_DEFLATE | FLAG_BINARY;
+
+    private final long writeTime;
+
+    private final long ttl;
+
+    private final byte flags;
+
+    private final int length;
+
+    private Header(final long writeTime, final long ttl, final byte flags, final int length) {
+      this.writeTime = writeTime;
+      this.ttl = ttl;
+      this.flags = flags;
+      this.length = length;
+    }
+
+    private boolean isDeflated() {
+      return (flags & FLAG_DEFLATE) != 0;
+    }
+
+    private boolean isBinary() {
+      return (flags & FLAG_BINARY) != 0;
+    }
+
+    /**
+     * Entry is stale once older than its own time-to-live, or the currently configured one if shorter.
+     */
+    private boolean isStale(final long now, final long expireAfter) {
+      long age = now - writeTime;
+      log.trace("Age: {} ms", age);
+      return age > Math.min(ttl, expireAfter);
+    }
+
+    private void write(final DataOutputStream output) throws IOException {
+      output.writeInt(MAGIC);
+      output.writeByte(VERSION);
+      output.writeByte(flags);
+      output.writeLong(writeTime);
+      output.writeLong(ttl);
+      output.writeInt(length);
+    }
+
+    private static Header read(final DataInputStream input) throws IOException {
+      if (input.readInt() != MAGIC) {
+        throw new IOException("Invalid entry header");
+      }
+      byte version = input.readByte();
+      if (version != VERSION) {
+        throw new IOException("Unsupported entry version: " + version);
+      }
+      byte flags = input.readByte();
+      if ((flags & ~KNOWN_FLAGS) != 0) {
+        throw new IOException("Unsupported entry flags: " + flags);
+      }
+      long writeTime = input.readLong();
+      long ttl = input.readLong();
+      int length = input.readInt();
+      if (length < 0) {
+        throw new IOException("Invalid entry length: " + length);
+      }
+      return new Header(writeTime, ttl, flags, length);
+    }
   }
 
   //
@@ -301,12 +1074,41 @@ public class DirectoryCache
      */
     public static final Duration DEFAULT_EXPIRE_AFTER = Duration.standardHours(12);
 
+    /**
+     * Default number of threads for bulk reads.
+     *
+     * @since 1.8.3
+     */
+    public static final int DEFAULT_READ_THREADS = 8;
+
     @JsonProperty
     private Path baseDir = DEFAULT_BASE_DIR;
 
     @JsonProperty
     private Duration expireAfter = DEFAULT_EXPIRE_AFTER;
 
+    @JsonProperty
+    private boolean durable = false;
+
+    @JsonProperty
+    private boolean compress = false;
+
+    @JsonProperty
+    private CacheFormat format = CacheFormat.JSON;
+
+    @JsonProperty
+    private int readThreads = DEFAULT_READ_THREADS;
+
+    @Nullable
+    @JsonProperty
+    private Duration sweepInterval;
+
+    @JsonProperty
+    private long maxBytes = -1;
+
+    @JsonProperty
+    private long maxEntries = -1;
+
     public Path getBaseDir() {
       return baseDir;
     }
@@ -323,6 +1125,123 @@ public class DirectoryCache
       this.expireAfter = expireAfter;
     }
 
+    /**
+     * Returns true if entries are forced to storage before they are published.
+     *
+     * Disabled by default; a lost entry only costs a remote request, and forcing every write is expensive.
+     *
+     * @since 1.8.3
+     */
+    public boolean isDurable() {
+      return durable;
+    }
+
+    /**
+     * @since 1.8.3
+     */
+    public void setDurable(final boolean durable) {
+      this.durable = durable;
+    }
+
+    /**
+     * Returns true if entry content is compressed when written; entries are readable either way.
+     *
+     * @since 1.8.3
+     */
+    public boolean isCompress() {
+      return compress;
+    }
+
+    /**
+     * @since 1.8.3
+     */
+    public void setCompress(final boolean compress) {
+      this.compress = compress;
+    }
+
+    /**
+     * Returns the format of written entries; entries are readable whichever format is configured.
+     *
+     * @since 1.8.3
+     */
+    public CacheFormat getFormat() {
+      return format;
+    }
+
+    /**
+     * @since 1.8.3
+     */
+    public void setFormat(final CacheFormat format) {
+      this.format = format;
+    }
+
+    /**
+     * Returns the number of threads reading entries in parallel for bulk lookups; serial if less than two.
+     *
+     * @since 1.8.3
+     */
+    public int getReadThreads() {
+      return readThreads;
+    }
+
+    /**
+     * @since 1.8.3
+     */
+    public void setReadThreads(final int readThreads) {
+      this.readThreads = readThreads;
+    }
+
+    /**
+     * Returns the interval of the background sweeper; or {@literal null} if disabled.
+     *
+     * Size bounds are only enforced by the sweeper.
+     *
+     * @since 1.8.3
+     */
+    @Nullable
+    public Duration getSweepInterval() {
+      return sweepInterval;
+    }
+
+    /**
+     * @since 1.8.3
+     */
+    public void setSweepInterval(@Nullable final Duration sweepInterval) {
+      this.sweepInterval = sweepInterval;
+    }
+
+    /**
+     * Returns the maximum total size in bytes of entries; unbounded if not positive.
+     *
+     * @since 1.8.3
+     */
+    public long getMaxBytes() {
+      return maxBytes;
+    }
+
+    /**
+     * @since 1.8.3
+     */
+    public void setMaxBytes(final long maxBytes) {
+      this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Returns the maximum number of entries; unbounded if not positive.
+     *
+     * @since 1.8.3
+     */
+    public long getMaxEntries() {
+      return maxEntries;
+    }
+
+    /**
+     * @since 1.8.3
+     */
+    public void setMaxEntries(final long maxEntries) {
+      this.maxEntries = maxEntries;
+    }
+
     @Override
     public Cache create() throws Exception {
       return new DirectoryCache(new GsonMarshaller(), this);
@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2018-present Sonatype, Inc. All rights reserved.
+ *
+ * This program is licensed to you under the Apache License Version 2.0,
+ * and you may not use this file except in compliance with the Apache License Version 2.0.
+ * You may obtain a copy of the Apache License Version 2.0 at http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the Apache License Version 2.0 is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Apache License Version 2.0 for the specific language governing permissions and limitations there under.
+ */
+package org.sonatype.ossindex.service.client.cache;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+
+import org.sonatype.ossindex.service.api.componentreport.ComponentReport;
+import org.sonatype.ossindex.service.client.marshal.Marshaller;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.MoreObjects;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * JSON {@link CacheCodec}; UTF-8 encoded content of given {@link Marshaller}.
+ *
+ * @since 1.8.3
+ */
+public class JsonCacheCodec
+    implements CacheCodec
+{
+  private final Marshaller marshaller;
+
+  public JsonCacheCodec(final Marshaller marshaller) {
+    this.marshaller = checkNotNull(marshaller);
+  }
+
+  @Override
+  public void encode(final ComponentReport report, final OutputStream output) throws IOException {
+    checkNotNull(report);
+    checkNotNull(output);
+    Writer writer = new OutputStreamWriter(output, Charsets.UTF_8);
+    marshaller.marshal(report, writer);
+    writer.flush();
+  }
+
+  @Override
+  public ComponentReport decode(final InputStream input) throws IOException {
+    checkNotNull(input);
+    return marshaller.unmarshal(new InputStreamReader(input, Charsets.UTF_8), ComponentReport.class);
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("marshaller", marshaller)
+        .toString();
+  }
+}
@@ -0,0 +1,879 @@
+/*
+ * Copyright (c) 2018-present Sonatype, Inc. All rights reserved.
+ *
+ * This program is licensed to you under the Apache License Version 2.0,
+ * and you may not use this file except in compliance with the Apache License Version 2.0.
+ * You may obtain a copy of the Apache License Version 2.0 at http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the Apache License Version 2.0 is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Apache License Version 2.0 for the specific language governing permissions and limitations there under.
+ */
+package org.sonatype.ossindex.service.client.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+import javax.annotation.Nullable;
+
+import org.sonatype.goodies.packageurl.PackageUrl;
+import org.sonatype.ossindex.service.api.componentreport.ComponentReport;
+import org.sonatype.ossindex.service.client.marshal.GsonMarshaller;
+import org.sonatype.ossindex.service.client.marshal.Marshaller;
+import org.sonatype.ossindex.service.client.util.PackageUrlInterner;
+import org.sonatype.ossindex.service.client.util.UserDataLocation;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Charsets;
+import com.google.common.base.MoreObjects;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.joda.time.Duration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * Log-structured {@link Cache}.
+ *
+ * Persistent report cache, appending entries to a small number of segment files and keeping an in-memory index of
+ * coordinates to entry location.  Superseded and expired entries are reclaimed by background compaction, which
+ * moves the remaining live entries of mostly-garbage segments to the active segment and deletes them.
+ *
+ * The base-directory is locked exclusively while open, so it can not be shared by concurrent processes;
+ * use {@link DirectoryCache} for that.
+ *
+ * @since 1.8.3
+ */
+public class LogCache
+    implements Cache
+{
+  private static final Logger log = LoggerFactory.getLogger(LogCache.class);
+
+  private static final String SEGMENT_PREFIX = "segment-";
+
+  private static final String SEGMENT_SUFFIX = ".log";
+
+  private static final String LOCK_FILE = ".lock";
+
+  /**
+   * Record header; crc32, write-time, key-length and value-length.
+   *
+   * Followed by UTF-8 encoded coordinates and JSON content.  The checksum covers everything after itself.
+   */
+  private static final int RECORD_HEADER_SIZE = 4 + 8 + 4 + 4;
+
+  private final Marshaller marshaller;
+
+  private final Path baseDir;
+
+  private final Duration expireAfter;
+
+  private final long maxSegmentSize;
+
+  private final double compactionThreshold;
+
+  private final boolean durable;
+
+  private final FileChannel lockChannel;
+
+  private final FileLock lock;
+
+  /**
+   * Coordinates to location of latest entry.
+   */
+  private final ConcurrentMap<String, Location> index = new ConcurrentHashMap<>();
+
+  private final ConcurrentMap<Integer, Segment> segments = new ConcurrentHashMap<>();
+
+  /**
+   * Guards appends, segment rolling and relocation of entries.
+   */
+  private final Object writeLock = new Object();
+
+  private Segment active;
+
+  private final ScheduledExecutorService compactor;
+
+  private final StatsCounter stats = new StatsCounter();
+
+  private volatile boolean closed;
+
+  public LogCache(final Marshaller marshaller, final Configuration config) throws IOException {
+    checkNotNull(config);
+    this.marshaller = checkNotNull(marshaller);
+
+    this.baseDir = checkNotNull(config.getBaseDir(), "Missing required base-directory");
+    this.expireAfter = checkNotNull(config.getExpireAfter(), "Missing required expiration duration");
+    checkArgument(config.getMaxSegmentSize() > 0, "Max segment-size must be greater than zero");
+    this.maxSegmentSize = config.getMaxSegmentSize();
+    checkArgument(config.getCompactionThreshold() > 0 && config.getCompactionThreshold() < 1,
+        "Compaction threshold out of range");
+    this.compactionThreshold = config.getCompactionThreshold();
+    Duration compactionInterval = checkNotNull(config.getCompactionInterval(), "Missing required compaction interval");
+    this.durable = config.isDurable();
+
+    if (!Files.exists(baseDir)) {
+      Files.createDirectories(baseDir);
+    }
+    else {
+      checkState(Files.isDirectory(baseDir), "Not a directory: %s", baseDir);
+    }
+
+    log.debug("Marshaller: {}", marshaller);
+    log.debug("Base-directory: {}", baseDir);
+    log.debug("Expire after: {}", expireAfter);
+    log.debug("Max segment-size: {}", maxSegmentSize);
+    log.debug("Compaction threshold: {}, interval: {}", compactionThreshold, compactionInterval);
+
+    this.lockChannel = FileChannel.open(baseDir.resolve(LOCK_FILE),
+        StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+    FileLock lock;
+    try {
+      lock = lockChannel.tryLock();
+    }
+    catch (OverlappingFileLockException e) {
+      lock = null;
+    }
+    if (lock == null) {
+      lockChannel.close();
+      throw new IOException("Cache directory in use: " + baseDir);
+    }
+    this.lock = lock;
+
+    try {
+      load();
+    }
+    catch (IOException e) {
+      closeSegments();
+      throw e;
+    }
+
+    this.compactor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+        .setNameFormat("ossindex-log-cache-compaction")
+        .setDaemon(true)
+        .build());
+    long interval = compactionInterval.getMillis();
+    compactor.scheduleWithFixedDelay(new Runnable()
+    {
+      @Override
+      public void run() {
+        compact();
+      }
+    }, interval, interval, TimeUnit.MILLISECONDS);
+  }
+
+  private void ensureNotClosed() {
+    checkState(!closed, "Closed");
+  }
+
+  @Override
+  public void close() throws Exception {
+    synchronized (writeLock) {
+      if (closed) {
+        return;
+      }
+      closed = true;
+    }
+    compactor.shutdownNow();
+    compactor.awaitTermination(10, TimeUnit.SECONDS);
+    closeSegments();
+  }
+
+  private void closeSegments() throws IOException {
+    for (Segment segment : segments.values()) {
+      segment.close();
+    }
+    if (lock.isValid()) {
+      lock.release();
+    }
+    lockChannel.close();
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("baseDir", baseDir)
+        .add("expireAfter", expireAfter)
+        .add("maxSegmentSize", maxSegmentSize)
+        .add("durable", durable)
+        .toString();
+  }
+
+  @Nullable
+  @Override
+  public ComponentReport getIfPresent(final PackageUrl coordinates) {
+    CacheEntry entry = getEntryIfPresent(coordinates);
+    return entry != null ? entry.getReport() : null;
+  }
+
+  /**
+   * @since 1.8.3
+   */
+  @Nullable
+  @Override
+  public CacheEntry getEntryIfPresent(final PackageUrl coordinates) {
+    checkNotNull(coordinates);
+    ensureNotClosed();
+
+    long start = System.nanoTime();
+    CacheEntry entry = loadEntry(coordinates);
+    stats.recordLoadTime(System.nanoTime() - start);
+    if (entry != null) {
+      stats.recordHit();
+    }
+    else {
+      stats.recordMiss();
+    }
+    return entry;
+  }
+
+  /**
+   * @since 1.8.3
+   */
+  @Override
+  public Map<PackageUrl, CacheEntry> getAllEntriesPresent(final Collection<PackageUrl> coordinates) {
+    checkNotNull(coordinates);
+
+    Map<PackageUrl, CacheEntry> entries = new LinkedHashMap<>();
+    for (PackageUrl purl : coordinates) {
+      CacheEntry entry = getEntryIfPresent(purl);
+      if (entry != null) {
+        entries.put(purl, entry);
+      }
+    }
+    return entries;
+  }
+
+  /**
+   * @since 1.8.3
+   */
+  @Override
+  public CacheStats stats() {
+    long bytes = 0;
+    for (Segment segment : segments.values()) {
+      bytes += segment.size.get();
+    }
+    return stats.snapshot(index.size(), bytes);
+  }
+
+  @Nullable
+  private CacheEntry loadEntry(final PackageUrl coordinates) {
+    String key = PackageUrlInterner.render(coordinates);
+    while (true) {
+      Location location = index.get(key);
+      if (location == null) {
+        return null;
+      }
+      if (isExpired(location, System.currentTimeMillis())) {
+        if (index.remove(key, location)) {
+          release(location);
+          stats.recordEviction();
+        }
+        return null;
+      }
+
+      try {
+        return new CacheEntry(readEntry(location), location.writeTime);
+      }
+      catch (ClosedChannelException e) {
+        // retry if entry was relocated by compaction meanwhile
+        if (closed || index.get(key) == location) {
+          log.warn("Failed to load entry: {}", coordinates, e);
+          return null;
+        }
+      }
+      catch (IOException e) {
+        log.warn("Corrupt entry: {}", coordinates, e);
+        if (index.remove(key, location)) {
+          release(location);
+        }
+        return null;
+      }
+    }
+  }
+
+  @Override
+  public void putAll(final Map<PackageUrl, ComponentReport> reports) {
+    checkNotNull(reports);
+    ensureNotClosed();
+
+    for (Map.Entry<PackageUrl, ComponentReport> entry : reports.entrySet()) {
+      try {
+        storeEntry(PackageUrlInterner.render(entry.getKey()), entry.getValue());
+      }
+      catch (IOException e) {
+        log.warn("Failed to store entry: {}", entry.getKey(), e);
+      }
+    }
+  }
+
+  private boolean isExpired(final Location location, final long now) {
+    return now - location.writeTime > expireAfter.getMillis();
+  }
+
+  /**
+   * Account for entry at location no longer being referenced.
+   */
+  private void release(final Location location) {
+    Segment segment = segments.get(location.segment);
+    if (segment != null) {
+      segment.live.addAndGet(-location.length);
+    }
+  }
+
+  //
+  // Loading
+  //
+
+  /**
+   * Open existing segments and rebuild index; later entries supersede earlier ones.
+   */
+  private void load() throws IOException {
+    List<Integer> ids = new ArrayList<>();
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(baseDir, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+      for (Path file : stream) {
+        String name = file.getFileName().toString();
+        try {
+          ids.add(Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())));
+        }
+        catch (NumberFormatException e) {
+          log.warn("Ignoring unexpected file: {}", file);
+        }
+      }
+    }
+    Collections.sort(ids);
+
+    long now = System.currentTimeMillis();
+    for (int id : ids) {
+      Segment segment = new Segment(id, segmentFile(id));
+      segments.put(id, segment);
+      scan(segment, now);
+      active = segment;
+    }
+    if (active == null) {
+      active = createSegment(0);
+    }
+    log.debug("Loaded {} entries from {} segments", index.size(), segments.size());
+  }
+
+  /**
+   * Index entries of segment; a corrupt or partially written tail is truncated.
+   */
+  private void scan(final Segment segment, final long now) throws IOException {
+    long size = segment.channel.size();
+    long position = 0;
+    ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_SIZE);
+    while (position + RECORD_HEADER_SIZE <= size) {
+      ((Buffer) header).clear();
+      segment.read(header, position);
+      ((Buffer) header).flip();
+      int crc = header.getInt();
+      long writeTime = header.getLong();
+      int keyLength = header.getInt();
+      int valueLength = header.getInt();
+      long length = (long) RECORD_HEADER_SIZE + keyLength + valueLength;
+      if (keyLength <= 0 || valueLength < 0 || position + length > size) {
+        break;
+      }
+
+      ByteBuffer record = ByteBuffer.allocate((int) length);
+      segment.read(record, position);
+      if (checksum(record.array()) != crc) {
+        break;
+      }
+
+      Location location = new Location(segment.id, position, (int) length, writeTime);
+      if (!isExpired(location, now)) {
+        String key = new String(record.array(), RECORD_HEADER_SIZE, keyLength, Charsets.UTF_8);
+        segment.live.addAndGet(length);
+        Location previous = index.put(key, location);
+        if (previous != null) {
+          release(previous);
+        }
+      }
+      position += length;
+    }
+
+    if (position < size) {
+      log.warn("Truncating corrupt segment: {}; at: {}, size: {}", segment.file, position, size);
+      segment.channel.truncate(position);
+    }
+    segment.size.set(position);
+  }
+
+  /**
+   * Read and decode entry at location.
+   */
+  private ComponentReport readEntry(final Location location) throws IOException {
+    Segment segment = segments.get(location.segment);
+    if (segment == null) {
+      // segment has been compacted
+      throw new ClosedChannelException();
+    }
+
+    ByteBuffer record = ByteBuffer.allocate(location.length);
+    segment.read(record, location.offset);
+    byte[] bytes = record.array();
+    ByteBuffer header = ByteBuffer.wrap(bytes, 0, RECORD_HEADER_SIZE);
+    int crc = header.getInt();
+    if (checksum(bytes) != crc) {
+      throw new IOException("Checksum mismatch");
+    }
+    header.getLong();
+    int keyLength = header.getInt();
+    int valueLength = header.getInt();
+
+    ByteArrayInputStream content = new ByteArrayInputStream(bytes, RECORD_HEADER_SIZE + keyLength, valueLength);
+    return marshaller.unmarshal(new InputStreamReader(content, Charsets.UTF_8), ComponentReport.class);
+  }
+
+  //
+  // Storing
+  //
+
+  private void storeEntry(final String key, final ComponentReport report) throws IOException {
+    log.trace("Storing entry: {}", key);
+
+    ByteArrayOutputStream content = new ByteArrayOutputStream();
+    Writer writer = new OutputStreamWriter(content, Charsets.UTF_8);
+    marshaller.marshal(report, writer);
+    writer.flush();
+
+    byte[] keyBytes = key.getBytes(Charsets.UTF_8);
+    byte[] valueBytes = content.toByteArray();
+    ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_SIZE + keyBytes.length + valueBytes.length);
+    long writeTime = System.currentTimeMillis();
+    record.putInt(0)
+        .putLong(writeTime)
+        .putInt(keyBytes.length)
+        .putInt(valueBytes.length)
+        .put(keyBytes)
+        .put(valueBytes);
+    record.putInt(0, checksum(record.array()));
+
+    synchronized (writeLock) {
+      ensureNotClosed();
+      Location location = append(record, writeTime);
+      Location previous = index.put(key, location);
+      if (previous != null) {
+        release(previous);
+      }
+    }
+  }
+
+  /**
+   * Append record to active segment; rolling to a new segment when full.  Caller must hold {@link #writeLock}.
+   */
+  private Location append(final ByteBuffer record, final long writeTime) throws IOException {
+    int length = record.capacity();
+    if (active.size.get() > 0 && active.size.get() + length > maxSegmentSize) {
+      if (durable) {
+        active.channel.force(false);
+      }
+      active = createSegment(active.id + 1);
+    }
+
+    long position = active.size.get();
+    ((Buffer) record).rewind();
+    try {
+      active.write(record, position);
+      if (durable) {
+        active.channel.force(false);
+      }
+    }
+    catch (IOException e) {
+      // drop any partially written record, so following records remain readable
+      active.truncate(position);
+      throw e;
+    }
+    active.size.addAndGet(length);
+    active.live.addAndGet(length);
+    return new Location(active.id, position, length, writeTime);
+  }
+
+  private Segment createSegment(final int id) throws IOException {
+    Segment segment = new Segment(id, segmentFile(id));
+    segments.put(id, segment);
+    log.debug("Created segment: {}", segment.file);
+    return segment;
+  }
+
+  private Path segmentFile(final int id) {
+    return baseDir.resolve(String.format("%s%08d%s", SEGMENT_PREFIX, id, SEGMENT_SUFFIX));
+  }
+
+  private static int checksum(final byte[] record) {
+    CRC32 crc = new CRC32();
+    crc.update(record, 4, record.length - 4);
+    return (int) crc.getValue();
+  }
+
+  //
+  // Compaction
+  //
+
+  /**
+   * Drop expired entries from index, then compact segments which are mostly garbage.
+   */
+  @VisibleForTesting
+  void compact() {
+    try {
+      long now = System.currentTimeMillis();
+      for (Map.Entry<String, Location> entry : index.entrySet()) {
+        if (isExpired(entry.getValue(), now) && index.remove(entry.getKey(), entry.getValue())) {
+          release(entry.getValue());
+          stats.recordEviction();
+        }
+      }
+
+      Set<Integer> candidates = new HashSet<>();
+      synchronized (writeLock) {
+        if (closed) {
+          return;
+        }
+        for (Segment segment : segments.values()) {
+          if (segment != active && segment.live.get() <= segment.size.get() * compactionThreshold) {
+            candidates.add(segment.id);
+          }
+        }
+      }
+      if (!candidates.isEmpty()) {
+        compact(candidates);
+      }
+    }
+    catch (Exception e) {
+      log.warn("Compaction failed", e);
+    }
+  }
+
+  /**
+   * Relocate live entries of given segments to the active segment and delete them.
+   */
+  private void compact(final Set<Integer> ids) throws IOException {
+    log.debug("Compacting segments: {}", ids);
+
+    for (Map.Entry<String, Location> entry : index.entrySet()) {
+      Location location = entry.getValue();
+      if (!ids.contains(location.segment)) {
+        continue;
+      }
+      ByteBuffer record = ByteBuffer.allocate(location.length);
+      segments.get(location.segment).read(record, location.offset);
+
+      synchronized (writeLock) {
+        if (closed) {
+          return;
+        }
+        // skip if superseded or expired meanwhile
+        if (index.get(entry.getKey()) == location) {
+          index.replace(entry.getKey(), location, append(record, location.writeTime));
+        }
+      }
+    }
+
+    for (int id : ids) {
+      Segment segment = segments.remove(id);
+      segment.close();
+      Files.deleteIfExists(segment.file);
+      log.debug("Deleted segment: {}", segment.file);
+    }
+  }
+
+  /**
+   * Returns the number of segments.
+   */
+  @VisibleForTesting
+  int segmentCount() {
+    return segments.size();
+  }
+
+  //
+  // Segment
+  //
+
+  /**
+   * Location of an entry.
+   */
+  private static class Location
+  {
+    private final int segment;
+
+    private final long offset;
+
+    private final int length;
+
+    private final long writeTime;
+
+    private Location(final int segment, final long offset, final int length, final long writeTime) {
+      this.segment = segment;
+      this.offset = offset;
+      this.length = length;
+      this.writeTime = writeTime;
+    }
+  }
+
+  /**
+   * Segment file.
+   *
+   * Channels are closed if a thread is interrupted during I/O; in that case the channel is reopened, so other threads
+   * are not affected.
+   */
+  private static class Segment
+  {
+    private final int id;
+
+    private final Path file;
+
+    private volatile FileChannel channel;
+
+    private volatile boolean closed;
+
+    /**
+     * Bytes of complete records.
+     */
+    private final AtomicLong size = new AtomicLong();
+
+    /**
+     * Bytes of records referenced from index.
+     */
+    private final AtomicLong live = new AtomicLong();
+
+    private Segment(final int id, final Path file) throws IOException {
+      this.id = id;
+      this.file = file;
+      this.channel = open();
+    }
+
+    private FileChannel open() throws IOException {
+      return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    private synchronized FileChannel reopen(final FileChannel stale) throws IOException {
+      if (closed) {
+        throw new ClosedChannelException();
+      }
+      if (channel == stale) {
+        log.debug("Reopening segment: {}", file);
+        channel = open();
+      }
+      return channel;
+    }
+
+    private synchronized void close() throws IOException {
+      closed = true;
+      channel.close();
+    }
+
+    private void read(final ByteBuffer buffer, final long position) throws IOException {
+      int start = buffer.position();
+      FileChannel current = channel;
+      try {
+        readFully(current, buffer, position);
+      }
+      catch (ClosedByInterruptException e) {
+        reopen(current);
+        throw e;
+      }
+      catch (ClosedChannelException e) {
+        // closed by interrupt of another thread; retry once
+        current = reopen(current);
+        ((Buffer) buffer).position(start);
+        readFully(current, buffer, position);
+      }
+    }
+
+    private static void readFully(final FileChannel channel, final ByteBuffer buffer, final long position)
+        throws IOException
+    {
+      long offset = position;
+      while (buffer.hasRemaining()) {
+        int read = channel.read(buffer, offset);
+        if (read < 0) {
+          throw new EOFException();
+        }
+        offset += read;
+      }
+    }
+
+    private void write(final ByteBuffer buffer, final long position) throws IOException {
+      FileChannel current = channel;
+      try {
+        long offset = position;
+        while (buffer.hasRemaining()) {
+          offset += current.write(buffer, offset);
+        }
+      }
+      catch (ClosedChannelException e) {
+        reopen(current);
+        throw e;
+      }
+    }
+
+    private void truncate(final long size) {
+      // clear interrupt status, else the reopened channel is closed again immediately
+      boolean interrupted = Thread.interrupted();
+      try {
+        FileChannel current = channel;
+        if (!current.isOpen()) {
+          current = reopen(current);
+        }
+        current.truncate(size);
+      }
+      catch (IOException e) {
+        log.warn("Failed to truncate segment: {}", file, e);
+      }
+      finally {
+        if (interrupted) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    }
+  }
+
+  //
+  // Configuration
+  //
+
+  /**
+   * {@link LogCache} configuration.
+   */
+  public static class Configuration
+      implements CacheConfiguration
+  {
+    /**
+     * Default base-directory.
+     */
+    public static final Path DEFAULT_BASE_DIR = new UserDataLocation("Sonatype", "Ossindex").get()
+        .resolve("report-log");
+
+    /**
+     * Default expiration duration.
+     */
+    public static final Duration DEFAULT_EXPIRE_AFTER = Duration.standardHours(12);
+
+    /**
+     * Default maximum size of a segment in bytes.
+     */
+    public static final long DEFAULT_MAX_SEGMENT_SIZE = 64 * 1024 * 1024L;
+
+    /**
+     * Default ratio of live bytes at or below which a segment is compacted.
+     */
+    public static final double DEFAULT_COMPACTION_THRESHOLD = 0.5;
+
+    /**
+     * Default delay between compaction runs.
+     */
+    public static final Duration DEFAULT_COMPACTION_INTERVAL = Duration.standardMinutes(5);
+
+    @JsonProperty
+    private Path baseDir = DEFAULT_BASE_DIR;
+
+    @JsonProperty
+    private Duration expireAfter = DEFAULT_EXPIRE_AFTER;
+
+    @JsonProperty
+    private long maxSegmentSize = DEFAULT_MAX_SEGMENT_SIZE;
+
+    @JsonProperty
+    private double compactionThreshold = DEFAULT_COMPACTION_THRESHOLD;
+
+    @JsonProperty
+    private Duration compactionInterval = DEFAULT_COMPACTION_INTERVAL;
+
+    @JsonProperty
+    private boolean durable = false;
+
+    public Path getBaseDir() {
+      return baseDir;
+    }
+
+    public void setBaseDir(final Path baseDir) {
+      this.baseDir = baseDir;
+    }
+
+    public Duration getExpireAfter() {
+      return expireAfter;
+    }
+
+    public void setExpireAfter(final Duration expireAfter) {
+      this.expireAfter = expireAfter;
+    }
+
+    public long getMaxSegmentSize() {
+      return maxSegmentSize;
+    }
+
+    public void setMaxSegmentSize(final long maxSegmentSize) {
+      this.maxSegmentSize = maxSegmentSize;
+    }
+
+    public double getCompactionThreshold() {
+      return compactionThreshold;
+    }
+
+    public void setCompactionThreshold(final double compactionThreshold) {
+      this.compactionThreshold = compactionThreshold;
+    }
+
+    public Duration getCompactionInterval() {
+      return compactionInterval;
+    }
+
+    public void setCompactionInterval(final Duration compactionInterval) {
+      this.compactionInterval = compactionInterval;
+    }
+
+    /**
+     * Returns true if appended entries are forced to storage before they are indexed.
+     */
+    public boolean isDurable() {
+      return durable;
+    }
+
+    public void setDurable(final boolean durable) {
+      this.durable = durable;
+    }
+
+    @Override
+    public Cache create() throws Exception {
+      return new LogCache(new GsonMarshaller(), this);
+    }
+  }
+}
@@ -12,6 +12,8 @@
  */
 package org.sonatype.ossindex.service.client.cache;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 import javax.annotation.Nullable;
@@ -38,14 +40,14 @@ public class MemoryCache
 {
   private final CacheBuilderSpec spec;
 
-  private final com.google.common.cache.Cache<PackageUrl,ComponentReport> storage;
+  private final com.google.common.cache.Cache<PackageUrl,CacheEntry> storage;
 
   private boolean closed;
 
   public MemoryCache(final Configuration config) {
     checkNotNull(config);
     this.spec = checkNotNull(config.getSpec(), "Missing required cache spec");
-    this.storage = CacheBuilder.from(spec).build();
+    this.storage = CacheBuilder.from(spec).recordStats().build();
   }
 
   private void ensureNotClosed() {
@@ -68,16 +70,62 @@ public class MemoryCache
   @Nullable
   @Override
   public ComponentReport getIfPresent(final PackageUrl coordinates) {
+    checkNotNull(coordinates);
+    ensureNotClosed();
+    CacheEntry entry = storage.getIfPresent(coordinates);
+    return entry != null ? entry.getReport() : null;
+  }
+
+  /**
+   * @since 1.8.3
+   */
+  @Nullable
+  @Override
+  public CacheEntry getEntryIfPresent(final PackageUrl coordinates) {
     checkNotNull(coordinates);
     ensureNotClosed();
     return storage.getIfPresent(coordinates);
   }
 
+  /**
+   * @since 1.8.3
+   */
+  @Override
+  public Map<PackageUrl, CacheEntry> getAllEntriesPresent(final Collection<PackageUrl> coordinates) {
+    checkNotNull(coordinates);
+    ensureNotClosed();
+    return storage.getAllPresent(coordinates);
+  }
+
   @Override
   public void putAll(final Map<PackageUrl, ComponentReport> reports) {
     checkNotNull(reports);
     ensureNotClosed();
-    storage.putAll(reports);
+    long now = System.currentTimeMillis();
+    Map<PackageUrl, CacheEntry> entries = new LinkedHashMap<>(reports.size());
+    for (Map.Entry<PackageUrl, ComponentReport> entry : reports.entrySet()) {
+      entries.put(entry.getKey(), new CacheEntry(entry.getValue(), now));
+    }
+    storage.putAll(entries);
+  }
+
+  /**
+   * @since 1.8.3
+   */
+  @Override
+  public void putAllEntries(final Map<PackageUrl, CacheEntry> entries) {
+    checkNotNull(entries);
+    ensureNotClosed();
+    storage.putAll(entries);
+  }
+
+  /**
+   * @since 1.8.3
+   */
+  @Override
+  public CacheStats stats() {
+    com.google.common.cache.CacheStats stats = storage.stats();
+    return new CacheStats(stats.hitCount(), stats.missCount(), 0, stats.evictionCount(), storage.size(), -1);
   }
 
   //
@@ -0,0 +1,876 @@
+/*
+ * Copyright (c) 2018-present Sonatype, Inc. All rights reserved.
+ *
+ * This program is licensed to you under the Apache License Version 2.0,
+ * and you may not use this file except in compliance with the Apache License Version 2.0.
+ * You may obtain a copy of the Apache License Version 2.0 at http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the Apache License Version 2.0 is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Apache License Version 2.0 for the specific language governing permissions and limitations there under.
+ */
+package org.sonatype.ossindex.service.client.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import javax.annotation.Nullable;
+
+import org.sonatype.goodies.packageurl.PackageUrl;
+import org.sonatype.ossindex.service.api.componentreport.ComponentReport;
+import org.sonatype.ossindex.service.client.marshal.GsonMarshaller;
+import org.sonatype.ossindex.service.client.marshal.Marshaller;
+import org.sonatype.ossindex.service.client.util.PackageUrlInterner;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Charsets;
+import com.google.common.base.MoreObjects;
+import com.google.common.hash.Hashing;
+import org.joda.time.Duration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * Off-heap {@link Cache}.
+ *
+ * Index and serialized reports live outside of the Java heap; in a direct buffer, or a memory-mapped file when
+ * configured, in which case entries survive restarts.
+ *
+ * The index is an open-addressing hash table with linear probing.  Report data is appended to a circular log which
+ * is divided into fixed size regions; when the log wraps around, the oldest region is reclaimed, keeping entries
+ * which have been read since the last pass and dropping the others (CLOCK).  The same second-chance policy evicts
+ * entries once the configured maximum number of entries is reached.
+ *
+ * @since 1.8.3
+ */
+public class OffHeapCache
+    implements Cache
+{
+  private static final Logger log = LoggerFactory.getLogger(OffHeapCache.class);
+
+  private static final int MAGIC = 0x4F494F48;
+
+  private static final int VERSION = 1;
+
+  //
+  // Header; magic, version, slot-count, data-size, region-size, head, count, flags
+  //
+
+  private static final int HEADER_SIZE = 64;
+
+  private static final int HEADER_SLOT_COUNT = 8;
+
+  private static final int HEADER_DATA_SIZE = 12;
+
+  private static final int HEADER_REGION_SIZE = 16;
+
+  private static final int HEADER_HEAD = 20;
+
+  private static final int HEADER_COUNT = 24;
+
+  private static final int HEADER_FLAGS = 28;
+
+  /**
+   * Report content is compressed with {@link java.util.zip.Deflater}.
+   */
+  private static final int FLAG_DEFLATE = 0x01;
+
+  /**
+   * Report content is encoded with {@link BinaryCacheCodec}.
+   */
+  private static final int FLAG_BINARY = 0x02;
+
+  //
+  // Index slot; key-hash (zero if empty), write-time, record offset, record length, referenced flag
+  //
+
+  private static final int SLOT_SIZE = 32;
+
+  private static final int SLOT_WRITE_TIME = 8;
+
+  private static final int SLOT_OFFSET = 16;
+
+  private static final int SLOT_LENGTH = 20;
+
+  private static final int SLOT_REFERENCED = 24;
+
+  //
+  // Record; length, crc32, key-hash, key-length, followed by UTF-8 encoded coordinates and content, which is JSON or
+  // binary and optionally compressed depending on the header flags
+  //
+
+  private static final int RECORD_HEADER_SIZE = 4 + 4 + 8 + 4;
+
+  private static final int RECORD_CRC = 4;
+
+  private static final int RECORD_HASH = 8;
+
+  private static final int RECORD_KEY_LENGTH = 16;
+
+  /**
+   * Region length marking the remainder of a region as unused.
+   */
+  private static final int REGION_END = -1;
+
+  private static final int MIN_REGION_SIZE = 1024;
+
+  private static final int MAX_REGION_SIZE = 1024 * 1024;
+
+  private final CacheCodec codec;
+
+  @Nullable
+  private final Path file;
+
+  private final Duration expireAfter;
+
+  private final int maxEntries;
+
+  private final int slotCount;
+
+  private final int regionSize;
+
+  private final int dataSize;
+
+  private final boolean compress;
+
+  private final CacheFormat format;
+
+  private final int dataStart;
+
+  private final ByteBuffer buffer;
+
+  @Nullable
+  private final FileChannel channel;
+
+  @Nullable
+  private final FileLock fileLock;
+
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+  private final StatsCounter stats = new StatsCounter();
+
+  /**
+   * Position of CLOCK hand for count based eviction; guarded by write-lock.
+   */
+  private int clockHand;
+
+  private volatile boolean closed;
+
+  public OffHeapCache(final Marshaller marshaller, final Configuration config) throws IOException {
+    checkNotNull(config);
+    checkNotNull(marshaller);
+
+    this.file = config.getFile();
+    this.expireAfter = checkNotNull(config.getExpireAfter(), "Missing required expiration duration");
+    checkArgument(config.getMaxEntries() > 0, "Max entries must be greater than zero");
+    this.maxEntries = config.getMaxEntries();
+
+    // at most half of the slots are used
+    this.slotCount = Integer.highestOneBit(Math.max(2, maxEntries * 2 - 1)) << 1;
+
+    this.regionSize = Math.min(MAX_REGION_SIZE,
+        Math.max(MIN_REGION_SIZE, Integer.highestOneBit((int) Math.min(Integer.MAX_VALUE, config.getDataSize() / 8))));
+    this.dataSize = (int) Math.min(Integer.MAX_VALUE, config.getDataSize() / regionSize * regionSize);
+    checkArgument(dataSize >= regionSize * 2, "Data-size too small");
+
+    this.dataStart = HEADER_SIZE + slotCount * SLOT_SIZE;
+    long capacity = (long) dataStart + dataSize;
+    checkArgument(capacity <= Integer.MAX_VALUE, "Capacity too large: %s", capacity);
+
+    log.debug("File: {}", file);
+    log.debug("Expire after: {}", expireAfter);
+    log.debug("Max entries: {}, slots: {}", maxEntries, slotCount);
+    log.debug("Data-size: {}, region-size: {}", dataSize, regionSize);
+
+    this.compress = config.isCompress();
+    log.debug("Compress: {}", compress);
+
+    this.format = checkNotNull(config.getFormat(), "Missing required format");
+    // given marshaller is used for JSON content
+    this.codec = format == CacheFormat.BINARY ? new BinaryCacheCodec() : new JsonCacheCodec(marshaller);
+    log.debug("Format: {}", format);
+
+    if (file != null) {
+      Path dir = file.toAbsolutePath().getParent();
+      if (dir != null) {
+        Files.createDirectories(dir);
+      }
+      this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+          StandardOpenOption.WRITE);
+      FileLock fileLock;
+      try {
+        fileLock = channel.tryLock();
+      }
+      catch (OverlappingFileLockException e) {
+        fileLock = null;
+      }
+      if (fileLock == null) {
+        channel.close();
+        throw new IOException("Cache file in use: " + file);
+      }
+      this.fileLock = fileLock;
+
+      // discard existing content unless compatible; file is zero-filled when extended by mapping
+      if (!isCompatible(channel, capacity)) {
+        channel.truncate(0);
+      }
+      this.buffer = channel.map(MapMode.READ_WRITE, 0, capacity);
+    }
+    else {
+      this.channel = null;
+      this.fileLock = null;
+      this.buffer = ByteBuffer.allocateDirect((int) capacity);
+    }
+
+    if (buffer.getInt(0) != MAGIC) {
+      buffer.putInt(0, MAGIC);
+      buffer.putInt(4, VERSION);
+      buffer.putInt(HEADER_SLOT_COUNT, slotCount);
+      buffer.putInt(HEADER_DATA_SIZE, dataSize);
+      buffer.putInt(HEADER_REGION_SIZE, regionSize);
+      buffer.putInt(HEADER_HEAD, 0);
+      buffer.putInt(HEADER_COUNT, 0);
+      buffer.putInt(HEADER_FLAGS, flags());
+    }
+    else {
+      // count is written separately from slots; a process killed in between leaves it inconsistent
+      int count = countSlots();
+      if (count != count()) {
+        log.warn("Repairing entry count: {} -> {}", count(), count);
+        buffer.putInt(HEADER_COUNT, count);
+      }
+      log.debug("Loaded {} entries", count);
+    }
+  }
+
+  /**
+   * Check if existing file has the same layout.
+   */
+  private boolean isCompatible(final FileChannel channel, final long capacity) throws IOException {
+    if (channel.size() != capacity) {
+      return false;
+    }
+    ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+    while (header.hasRemaining()) {
+      if (channel.read(header, header.position()) < 0) {
+        return false;
+      }
+    }
+    return header.getInt(0) == MAGIC &&
+        header.getInt(4) == VERSION &&
+        header.getInt(HEADER_SLOT_COUNT) == slotCount &&
+        header.getInt(HEADER_DATA_SIZE) == dataSize &&
+        header.getInt(HEADER_REGION_SIZE) == regionSize &&
+        header.getInt(HEADER_FLAGS) == flags();
+  }
+
+  private int flags() {
+    return (compress ? FLAG_DEFLATE : 0) | (format == CacheFormat.BINARY ? FLAG_BINARY : 0);
+  }
+
+  private void ensureNotClosed() {
+    checkState(!closed, "Closed");
+  }
+
+  @Override
+  public void close() throws Exception {
+    Lock writeLock = lock.writeLock();
+    writeLock.lock();
+    try {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      if (buffer instanceof MappedByteBuffer) {
+        ((MappedByteBuffer) buffer).force();
+      }
+      if (fileLock != null && fileLock.isValid()) {
+        fileLock.release();
+      }
+      if (channel != null) {
+        // mapping remains valid until buffer is reclaimed
+        channel.close();
+      }
+    }
+    finally {
+      writeLock.unlock();
+    }
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("file", file)
+        .add("expireAfter", expireAfter)
+        .add("maxEntries", maxEntries)
+        .add("dataSize", dataSize)
+        .toString();
+  }
+
+  @Nullable
+  @Override
+  public ComponentReport getIfPresent(final PackageUrl coordinates) {
+    CacheEntry entry = getEntryIfPresent(coordinates);
+    return entry != null ? entry.getReport() : null;
+  }
+
+  /**
+   * @since 1.8.3
+   */
+  @Nullable
+  @Override
+  public CacheEntry getEntryIfPresent(final PackageUrl coordinates) {
+    checkNotNull(coordinates);
+
+    long start = System.nanoTime();
+    CacheEntry entry = loadEntry(coordinates);
+    stats.recordLoadTime(System.nanoTime() - start);
+    if (entry != null) {
+      stats.recordHit();
+    }
+    else {
+      stats.recordMiss();
+    }
+    return entry;
+  }
+
+  /**
+   * @since 1.8.3
+   */
+  @Override
+  public Map<PackageUrl, CacheEntry> getAllEntriesPresent(final Collection<PackageUrl> coordinates) {
+    checkNotNull(coordinates);
+
+    Map<PackageUrl, CacheEntry> entries = new LinkedHashMap<>();
+    for (PackageUrl purl : coordinates) {
+      CacheEntry entry = getEntryIfPresent(purl);
+      if (entry != null) {
+        entries.put(purl, entry);
+      }
+    }
+    return entries;
+  }
+
+  /**
+   * Reports size of reserved storage, which includes the index.
+   *
+   * @since 1.8.3
+   */
+  @Override
+  public CacheStats stats() {
+    return stats.snapshot(count(), buffer.capacity());
+  }
+
+  @Nullable
+  private CacheEntry loadEntry(final PackageUrl coordinates) {
+    byte[] key = PackageUrlInterner.render(coordinates).getBytes(Charsets.UTF_8);
+    long hash = hash(key);
+    byte[] content;
+    long writeTime;
+
+    Lock readLock = lock.readLock();
+    readLock.lock();
+    try {
+      ensureNotClosed();
+
+      int slot = findSlot(hash, key);
+      if (slot < 0) {
+        return null;
+      }
+      int position = slotPosition(slot);
+      if (isExpired(position, System.currentTimeMillis())) {
+        return null;
+      }
+
+      // benign race; readers only ever set the flag
+      buffer.put(position + SLOT_REFERENCED, (byte) 1);
+
+      byte[] record = read(dataStart + buffer.getInt(position + SLOT_OFFSET), buffer.getInt(position + SLOT_LENGTH));
+      if (checksum(record) != ByteBuffer.wrap(record).getInt(RECORD_CRC)) {
+        log.warn("Corrupt entry: {}", coordinates);
+        return null;
+      }
+      content = Arrays.copyOfRange(record, RECORD_HEADER_SIZE + key.length, record.length);
+      writeTime = buffer.getLong(position + SLOT_WRITE_TIME);
+    }
+    finally {
+      readLock.unlock();
+    }
+
+    InputStream input = new ByteArrayInputStream(content);
+    if (compress) {
+      input = new InflaterInputStream(input);
+    }
+    try {
+      return new CacheEntry(codec.decode(input), writeTime);
+    }
+    catch (IOException e) {
+      log.warn("Failed to load entry: {}", coordinates, e);
+      return null;
+    }
+  }
+
+  @Override
+  public void putAll(final Map<PackageUrl, ComponentReport> reports) {
+    checkNotNull(reports);
+    ensureNotClosed();
+
+    for (Map.Entry<PackageUrl, ComponentReport> entry : reports.entrySet()) {
+      try {
+        storeEntry(entry.getKey(), entry.getValue());
+      }
+      catch (IOException e) {
+        log.warn("Failed to store entry: {}", entry.getKey(), e);
+      }
+    }
+  }
+
+  private void storeEntry(final PackageUrl coordinates, final ComponentReport report) throws IOException {
+    byte[] key = PackageUrlInterner.render(coordinates).getBytes(Charsets.UTF_8);
+    long hash = hash(key);
+
+    ByteArrayOutputStream content = new ByteArrayOutputStream();
+    try (OutputStream output = compress ? new DeflaterOutputStream(content) : content) {
+      codec.encode(report, output);
+    }
+
+    int length = RECORD_HEADER_SIZE + key.length + content.size();
+    if (length > regionSize) {
+      log.debug("Entry too large: {}; {} bytes", coordinates, length);
+      return;
+    }
+
+    ByteBuffer record = ByteBuffer.allocate(length);
+    record.putInt(length)
+        .putInt(0)
+        .putLong(hash)
+        .putInt(key.length)
+        .put(key)
+        .put(content.toByteArray());
+    record.putInt(RECORD_CRC, checksum(record.array()));
+
+    Lock writeLock = lock.writeLock();
+    writeLock.lock();
+    try {
+      ensureNotClosed();
+
+      int existing = findSlot(hash, key);
+      if (existing >= 0) {
+        removeSlot(existing);
+      }
+      while (count() >= maxEntries && evict()) {
+        // evicted
+      }
+
+      int offset = allocate(length);
+      write(dataStart + offset, record.array());
+      insertSlot(hash, System.currentTimeMillis(), offset, length);
+    }
+    finally {
+      writeLock.unlock();
+    }
+  }
+
+  /**
+   * Returns the number of entries.
+   */
+  @VisibleForTesting
+  int count() {
+    return buffer.getInt(HEADER_COUNT);
+  }
+
+  /**
+   * Returns the number of occupied slots.
+   */
+  private int countSlots() {
+    int count = 0;
+    for (int slot = 0; slot < slotCount; slot++) {
+      if (buffer.getLong(slotPosition(slot)) != 0) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  private boolean isExpired(final int slotPosition, final long now) {
+    return now - buffer.getLong(slotPosition + SLOT_WRITE_TIME) > expireAfter.getMillis();
+  }
+
+  private static long hash(final byte[] key) {
+    long hash = Hashing.murmur3_128().hashBytes(key).asLong();
+    // zero marks empty slots
+    return hash != 0 ? hash : 1;
+  }
+
+  private static int checksum(final byte[] record) {
+    CRC32 crc = new CRC32();
+    crc.update(record, RECORD_HASH, record.length - RECORD_HASH);
+    return (int) crc.getValue();
+  }
+
+  private byte[] read(final int position, final int length) {
+    byte[] bytes = new byte[length];
+    ByteBuffer view = buffer.duplicate();
+    ((Buffer) view).position(position);
+    view.get(bytes);
+    return bytes;
+  }
+
+  private void write(final int position, final byte[] bytes) {
+    ByteBuffer view = buffer.duplicate();
+    ((Buffer) view).position(position);
+    view.put(bytes);
+  }
+
+  //
+  // Index
+  //
+
+  private static int slotPosition(final int slot) {
+    return HEADER_SIZE + slot * SLOT_SIZE;
+  }
+
+  private int home(final long hash) {
+    return (int) (hash ^ (hash >>> 32)) & (slotCount - 1);
+  }
+
+  /**
+   * Returns slot of entry with given key; or {@literal -1} if missing.
+   */
+  private int findSlot(final long hash, final byte[] key) {
+    int mask = slotCount - 1;
+    for (int slot = home(hash); ; slot = (slot + 1) & mask) {
+      int position = slotPosition(slot);
+      long slotHash = buffer.getLong(position);
+      if (slotHash == 0) {
+        return -1;
+      }
+      if (slotHash == hash && keyEquals(buffer.getInt(position + SLOT_OFFSET), key)) {
+        return slot;
+      }
+    }
+  }
+
+  private boolean keyEquals(final int offset, final byte[] key) {
+    int record = dataStart + offset;
+    return buffer.getInt(record + RECORD_KEY_LENGTH) == key.length &&
+        Arrays.equals(read(record + RECORD_HEADER_SIZE, key.length), key);
+  }
+
+  /**
+   * Returns slot referencing record at given offset; or {@literal -1} if record is not referenced.
+   */
+  private int findSlotAt(final long hash, final int offset) {
+    int mask = slotCount - 1;
+    for (int slot = home(hash); ; slot = (slot + 1) & mask) {
+      int position = slotPosition(slot);
+      long slotHash = buffer.getLong(position);
+      if (slotHash == 0) {
+        return -1;
+      }
+      if (slotHash == hash && buffer.getInt(position + SLOT_OFFSET) == offset) {
+        return slot;
+      }
+    }
+  }
+
+  private void insertSlot(final long hash, final long writeTime, final int offset, final int length) {
+    int mask = slotCount - 1;
+    int slot = home(hash);
+    while (buffer.getLong(slotPosition(slot)) != 0) {
+      slot = (slot + 1) & mask;
+    }
+    int position = slotPosition(slot);
+    buffer.putLong(position, hash);
+    buffer.putLong(position + SLOT_WRITE_TIME, writeTime);
+    buffer.putInt(position + SLOT_OFFSET, offset);
+    buffer.putInt(position + SLOT_LENGTH, length);
+    buffer.put(position + SLOT_REFERENCED, (byte) 0);
+    buffer.putInt(HEADER_COUNT, count() + 1);
+  }
+
+  /**
+   * Remove slot; following slots of the same probe sequence are shifted back, so lookups need no tombstones.
+   */
+  private void removeSlot(final int slot) {
+    int mask = slotCount - 1;
+    int hole = slot;
+    for (int next = (hole + 1) & mask; ; next = (next + 1) & mask) {
+      long hash = buffer.getLong(slotPosition(next));
+      if (hash == 0) {
+        break;
+      }
+      int home = home(hash);
+      boolean reachable = hole <= next ? (hole < home && home <= next) : (hole < home || home <= next);
+      if (!reachable) {
+        copySlot(next, hole);
+        hole = next;
+      }
+    }
+    int position = slotPosition(hole);
+    for (int i = 0; i < SLOT_SIZE; i += 8) {
+      buffer.putLong(position + i, 0);
+    }
+    buffer.putInt(HEADER_COUNT, count() - 1);
+  }
+
+  private void copySlot(final int from, final int to) {
+    int source = slotPosition(from);
+    int target = slotPosition(to);
+    for (int i = 0; i < SLOT_SIZE; i += 8) {
+      buffer.putLong(target + i, buffer.getLong(source + i));
+    }
+  }
+
+  /**
+   * Evict the first entry not referenced since the CLOCK hand last passed it.
+   *
+   * The hand passes each slot at most twice; the first pass clears referenced flags.  If no entry is found the count
+   * is inconsistent; it is repaired and {@literal false} returned.
+   */
+  private boolean evict() {
+    int mask = slotCount - 1;
+    for (int i = 0; i < slotCount * 2; i++) {
+      int position = slotPosition(clockHand);
+      if (buffer.getLong(position) != 0) {
+        if (buffer.get(position + SLOT_REFERENCED) != 0) {
+          buffer.put(position + SLOT_REFERENCED, (byte) 0);
+        }
+        else {
+          // removal shifts the next entry into this slot; hand stays
+          removeSlot(clockHand);
+          stats.recordEviction();
+          return true;
+        }
+      }
+      clockHand = (clockHand + 1) & mask;
+    }
+
+    int count = countSlots();
+    log.warn("Repairing entry count: {} -> {}", count(), count);
+    buffer.putInt(HEADER_COUNT, count);
+    return false;
+  }
+
+  //
+  // Data log
+  //
+
+  /**
+   * Allocate space for record at head of log; reclaiming the next region when the current one is full.
+   *
+   * A head on a region boundary has exhausted the preceding region, rather than starting the following one which has
+   * not been reclaimed yet; only the initial head of an empty log starts a region.
+   *
+   * @return offset of record relative to start of data.
+   */
+  private int allocate(final int length) {
+    int head = buffer.getInt(HEADER_HEAD);
+    boolean exhausted = head != 0 && head % regionSize == 0;
+    while (exhausted || head + length > regionEnd(head)) {
+      int end = exhausted ? head : regionEnd(head);
+      if (end - head >= 4) {
+        buffer.putInt(dataStart + head, REGION_END);
+      }
+      int start = end % dataSize;
+      head = reclaim(start);
+      // kept records may fill the reclaimed region completely
+      exhausted = head != start && head % regionSize == 0;
+    }
+    buffer.putInt(HEADER_HEAD, head + length);
+    return head;
+  }
+
+  private int regionEnd(final int offset) {
+    return (offset / regionSize + 1) * regionSize;
+  }
+
+  /**
+   * Reclaim region; entries referenced since the last pass are kept and compacted to the start of the region, all
+   * other entries are evicted.
+   *
+   * @return offset following the kept records.
+   */
+  private int reclaim(final int start) {
+    int end = start + regionSize;
+    long now = System.currentTimeMillis();
+
+    List<byte[]> kept = new ArrayList<>();
+    List<Integer> keptOffsets = new ArrayList<>();
+    int offset = start;
+    while (offset + 4 <= end) {
+      int length = buffer.getInt(dataStart + offset);
+      if (length <= 0 || offset + length > end) {
+        break;
+      }
+      int slot = findSlotAt(buffer.getLong(dataStart + offset + RECORD_HASH), offset);
+      if (slot >= 0) {
+        int position = slotPosition(slot);
+        if (buffer.get(position + SLOT_REFERENCED) != 0 && !isExpired(position, now)) {
+          kept.add(read(dataStart + offset, length));
+          keptOffsets.add(offset);
+        }
+        else {
+          removeSlot(slot);
+          stats.recordEviction();
+        }
+      }
+      offset += length;
+    }
+
+    int head = start;
+    for (int i = 0; i < kept.size(); i++) {
+      byte[] record = kept.get(i);
+      int slot = findSlotAt(ByteBuffer.wrap(record).getLong(RECORD_HASH), keptOffsets.get(i));
+      write(dataStart + head, record);
+      int position = slotPosition(slot);
+      buffer.putInt(position + SLOT_OFFSET, head);
+      buffer.put(position + SLOT_REFERENCED, (byte) 0);
+      head += record.length;
+    }
+    log.trace("Reclaimed region: {}; kept {} entries", start / regionSize, kept.size());
+    return head;
+  }
+
+  //
+  // Configuration
+  //
+
+  /**
+   * {@link OffHeapCache} configuration.
+   */
+  public static class Configuration
+      implements CacheConfiguration
+  {
+    /**
+     * Default maximum number of entries.
+     */
+    public static final int DEFAULT_MAX_ENTRIES = 100000;
+
+    /**
+     * Default size in bytes of serialized report data.
+     */
+    public static final long DEFAULT_DATA_SIZE = 256 * 1024 * 1024L;
+
+    /**
+     * Default expiration duration.
+     */
+    public static final Duration DEFAULT_EXPIRE_AFTER = Duration.standardHours(12);
+
+    @Nullable
+    @JsonProperty
+    private Path file;
+
+    @JsonProperty
+    private int maxEntries = DEFAULT_MAX_ENTRIES;
+
+    @JsonProperty
+    private long dataSize = DEFAULT_DATA_SIZE;
+
+    @JsonProperty
+    private Duration expireAfter = DEFAULT_EXPIRE_AFTER;
+
+    @JsonProperty
+    private boolean compress = false;
+
+    @JsonProperty
+    private CacheFormat format = CacheFormat.JSON;
+
+    /**
+     * Returns the file to memory-map; or {@literal null} to keep entries in a direct buffer, which is not persistent.
+     */
+    @Nullable
+    public Path getFile() {
+      return file;
+    }
+
+    public void setFile(@Nullable final Path file) {
+      this.file = file;
+    }
+
+    public int getMaxEntries() {
+      return maxEntries;
+    }
+
+    public void setMaxEntries(final int maxEntries) {
+      this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Returns the size in bytes reserved for serialized reports; in addition to the index.
+     */
+    public long getDataSize() {
+      return dataSize;
+    }
+
+    public void setDataSize(final long dataSize) {
+      this.dataSize = dataSize;
+    }
+
+    public Duration getExpireAfter() {
+      return expireAfter;
+    }
+
+    public void setExpireAfter(final Duration expireAfter) {
+      this.expireAfter = expireAfter;
+    }
+
+    /**
+     * Returns true if report content is compressed; more entries fit into the same data-size.
+     */
+    public boolean isCompress() {
+      return compress;
+    }
+
+    public void setCompress(final boolean compress) {
+      this.compress = compress;
+    }
+
+    /**
+     * Returns the format of report content; changing format, like compression, discards persisted entries.
+     */
+    public CacheFormat getFormat() {
+      return format;
+    }
+
+    public void setFormat(final CacheFormat format) {
+      this.format = format;
+    }
+
+    @Override
+    public Cache create() throws Exception {
+      return new OffHeapCache(new GsonMarshaller(), this);
+    }
+  }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2018-present Sonatype, Inc. All rights reserved.
+ *
+ * This program is licensed to you under the Apache License Version 2.0,
+ * and you may not use this file except in compliance with the Apache License Version 2.0.
+ * You may obtain a copy of the Apache License Version 2.0 at http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the Apache License Version 2.0 is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Apache License Version 2.0 for the specific language governing permissions and limitations there under.
+ */
+package org.sonatype.ossindex.service.client.cache;
+
+import org.sonatype.ossindex.service.client.util.StripedCounter;
+
+/**
+ * Records {@link CacheStats}.
+ *
+ * @since 1.8.3
+ */
+class StatsCounter
+{
+  private final StripedCounter hitCount = new StripedCounter();
+
+  private final StripedCounter missCount = new StripedCounter();
+
+  private final StripedCounter loadTime = new StripedCounter();
+
+  private final StripedCounter evictionCount = new StripedCounter();
+
+  public void recordHit() {
+    hitCount.increment();
+  }
+
+  public void recordMiss() {
+    missCount.increment();
+  }
+
+  public void recordLoadTime(final long nanos) {
+    loadTime.add(nanos);
+  }
+
+  public void recordEviction() {
+    evictionCount.increment();
+  }
+
+  public CacheStats snapshot(final long size, final long bytes) {
+    return new CacheStats(hitCount.sum(), missCount.sum(), loadTime.sum(), evictionCount.sum(), size, bytes);
+  }
+}
@@ -0,0 +1,403 @@
+/*
+ * Copyright (c) 2018-present Sonatype, Inc. All rights reserved.
+ *
+ * This program is licensed to you under the Apache License Version 2.0,
+ * and you may not use this file except in compliance with the Apache License Version 2.0.
+ * You may obtain a copy of the Apache License Version 2.0 at http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the Apache License Version 2.0 is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Apache License Version 2.0 for the specific language governing permissions and limitations there under.
+ */
+package org.sonatype.ossindex.service.client.cache;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nullable;
+
+import org.sonatype.goodies.packageurl.PackageUrl;
+import org.sonatype.ossindex.service.api.componentreport.ComponentReport;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.base.MoreObjects;
+import com.google.common.cache.CacheBuilderSpec;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.joda.time.Duration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * Tiered {@link Cache}.
+ *
+ * Layers a first-level cache, usually in-memory, over a second-level persistent cache.  Entries found in the second
+ * level are promoted to the first.  Writes go to both levels; to the second level either immediately or, with
+ * write-behind, from a background thread.
+ *
+ * The first level should expire entries after write.  Entries which have expired in the second level are not served
+ * from the first, even if promoted shortly before they expired; this requires the second level expiration duration.
+ *
+ * @since 1.8.3
+ */
+public class TieredCache
+    implements Cache
+{
+  private static final Logger log = LoggerFactory.getLogger(TieredCache.class);
+
+  private final Cache first;
+
+  private final Cache second;
+
+  /**
+   * Expiration duration of the second level; or {@literal null} if unknown.
+   */
+  @Nullable
+  private final Duration expireAfter;
+
+  /**
+   * Entries not yet written to the second level; only used with write-behind.
+   */
+  private final ConcurrentMap<PackageUrl, CacheEntry> pending = new ConcurrentHashMap<>();
+
+  @Nullable
+  private final ExecutorService writer;
+
+  private final StatsCounter stats = new StatsCounter();
+
+  private volatile boolean closed;
+
+  public TieredCache(final Cache first, final Cache second, final boolean writeBehind) {
+    this(first, second, null, writeBehind);
+  }
+
+  public TieredCache(final Cache first,
+                     final Cache second,
+                     @Nullable final Duration expireAfter,
+                     final boolean writeBehind)
+  {
+    this.first = checkNotNull(first);
+    this.second = checkNotNull(second);
+    this.expireAfter = expireAfter;
+
+    if (writeBehind) {
+      this.writer = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder()
+          .setNameFormat("ossindex-cache-writer")
+          .setDaemon(true)
+          .build());
+    }
+    else {
+      this.writer = null;
+    }
+  }
+
+  private void ensureNotClosed() {
+    checkState(!closed, "Closed");
+  }
+
+  /**
+   * Close cache; waiting for pending writes to complete before closing both levels.
+   */
+  @Override
+  public void close() throws Exception {
+    if (closed) {
+      return;
+    }
+    closed = true;
+    if (writer != null) {
+      writer.shutdown();
+      if (!writer.awaitTermination(1, TimeUnit.MINUTES)) {
+        log.warn("Timed out writing {} pending entries", pending.size());
+      }
+    }
+    try {
+      first.close();
+    }
+    finally {
+      second.close();
+    }
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("first", first)
+        .add("second", second)
+        .add("expireAfter", expireAfter)
+        .add("writeBehind", writer != null)
+        .toString();
+  }
+
+  @Nullable
+  @Override
+  public ComponentReport getIfPresent(final PackageUrl coordinates) {
+    CacheEntry entry = getEntryIfPresent(coordinates);
+    return entry != null ? entry.getReport() : null;
+  }
+
+  /**
+   * Promoted entries retain their write-time.
+   *
+   * @since 1.8.3
+   */
+  @Nullable
+  @Override
+  public CacheEntry getEntryIfPresent(final PackageUrl coordinates) {
+    checkNotNull(coordinates);
+    ensureNotClosed();
+
+    CacheEntry entry = first.getEntryIfPresent(coordinates);
+    if (entry != null && !isExpired(entry, System.currentTimeMillis())) {
+      stats.recordHit();
+      return entry;
+    }
+
+    entry = pending.get(coordinates);
+    if (entry == null) {
+      entry = second.getEntryIfPresent(coordinates);
+    }
+    if (entry != null) {
+      log.trace("Promoting: {}", coordinates);
+      first.putAllEntries(Collections.singletonMap(coordinates, entry));
+      stats.recordHit();
+    }
+    else {
+      stats.recordMiss();
+    }
+    return entry;
+  }
+
+  /**
+   * Check if first-level entry has expired in the second level; the first level expires entries from the time they
+   * were promoted.
+   */
+  private boolean isExpired(final CacheEntry entry, final long now) {
+    return expireAfter != null && entry.isOlderThan(expireAfter.getMillis(), now);
+  }
+
+  /**
+   * @since 1.8.3
+   */
+  @Override
+  public Map<PackageUrl, ComponentReport> getAllPresent(final Collection<PackageUrl> coordinates) {
+    Map<PackageUrl, ComponentReport> reports = new LinkedHashMap<>();
+    for (Map.Entry<PackageUrl, CacheEntry> entry : getAllEntriesPresent(coordinates).entrySet()) {
+      reports.put(entry.getKey(), entry.getValue().getReport());
+    }
+    return reports;
+  }
+
+  /**
+   * @since 1.8.3
+   */
+  @Override
+  public Map<PackageUrl, CacheEntry> getAllEntriesPresent(final Collection<PackageUrl> coordinates) {
+    checkNotNull(coordinates);
+    ensureNotClosed();
+
+    Map<PackageUrl, CacheEntry> entries = new LinkedHashMap<>(first.getAllEntriesPresent(coordinates));
+    long now = System.currentTimeMillis();
+    Iterator<CacheEntry> iter = entries.values().iterator();
+    while (iter.hasNext()) {
+      if (isExpired(iter.next(), now)) {
+        iter.remove();
+      }
+    }
+    Collection<PackageUrl> missing = new LinkedHashSet<>();
+    Map<PackageUrl, CacheEntry> promoted = new LinkedHashMap<>();
+    for (PackageUrl purl : coordinates) {
+      if (!entries.containsKey(purl)) {
+        CacheEntry entry = pending.get(purl);
+        if (entry != null) {
+          promoted.put(purl, entry);
+        }
+        else {
+          missing.add(purl);
+        }
+      }
+    }
+    if (!missing.isEmpty()) {
+      promoted.putAll(second.getAllEntriesPresent(missing));
+    }
+    if (!promoted.isEmpty()) {
+      log.trace("Promoting: {} entries", promoted.size());
+      first.putAllEntries(promoted);
+      entries.putAll(promoted);
+    }
+    for (PackageUrl purl : new LinkedHashSet<>(coordinates)) {
+      if (entries.containsKey(purl)) {
+        stats.recordHit();
+      }
+      else {
+        stats.recordMiss();
+      }
+    }
+    return entries;
+  }
+
+  /**
+   * Hits and misses are counted once per lookup, regardless of level; other statistics are those of the second level.
+   */
+  @Override
+  public CacheStats stats() {
+    CacheStats lookups = stats.snapshot(-1, -1);
+    CacheStats persistent = second.stats();
+    return new CacheStats(lookups.getHitCount(), lookups.getMissCount(), persistent.getLoadTime(),
+        persistent.getEvictionCount(), persistent.getSize(), persistent.getBytes());
+  }
+
+  @Override
+  public void putAll(final Map<PackageUrl, ComponentReport> reports) {
+    checkNotNull(reports);
+    ensureNotClosed();
+
+    first.putAll(reports);
+
+    if (writer == null) {
+      second.putAll(reports);
+      return;
+    }
+
+    long now = System.currentTimeMillis();
+    final Map<PackageUrl, CacheEntry> copy = new LinkedHashMap<>(reports.size());
+    for (Map.Entry<PackageUrl, ComponentReport> entry : reports.entrySet()) {
+      copy.put(entry.getKey(), new CacheEntry(entry.getValue(), now));
+    }
+    pending.putAll(copy);
+    writer.execute(new Runnable()
+    {
+      @Override
+      public void run() {
+        try {
+          second.putAllEntries(copy);
+        }
+        catch (Exception e) {
+          log.warn("Failed to write entries", e);
+        }
+        finally {
+          for (Map.Entry<PackageUrl, CacheEntry> entry : copy.entrySet()) {
+            // leave newer entries in place for their own write
+            pending.remove(entry.getKey(), entry.getValue());
+          }
+        }
+      }
+    });
+  }
+
+  //
+  // Configuration
+  //
+
+  /**
+   * {@link TieredCache} configuration.
+   */
+  public static class Configuration
+      implements CacheConfiguration
+  {
+    /**
+     * Default first-level cache spec; expires after write so that memory never outlives the second level.
+     */
+    public static final CacheBuilderSpec DEFAULT_FIRST_SPEC = CacheBuilderSpec.parse(
+        "maximumSize=4096,expireAfterWrite=10m"
+    );
+
+    @JsonProperty
+    private CacheConfiguration first;
+
+    @JsonProperty
+    private CacheConfiguration second;
+
+    @JsonProperty
+    private Duration expireAfter;
+
+    @JsonProperty
+    private boolean writeBehind = false;
+
+    public Configuration() {
+      MemoryCache.Configuration memory = new MemoryCache.Configuration();
+      memory.setSpec(DEFAULT_FIRST_SPEC);
+      this.first = memory;
+      this.second = new DirectoryCache.Configuration();
+    }
+
+    public CacheConfiguration getFirst() {
+      return first;
+    }
+
+    public void setFirst(final CacheConfiguration first) {
+      this.first = first;
+    }
+
+    public CacheConfiguration getSecond() {
+      return second;
+    }
+
+    public void setSecond(final CacheConfiguration second) {
+      this.second = second;
+    }
+
+    /**
+     * Returns the expiration duration of the second level; derived from the second-level configuration if not set.
+     */
+    @Nullable
+    public Duration getExpireAfter() {
+      return expireAfter;
+    }
+
+    public void setExpireAfter(@Nullable final Duration expireAfter) {
+      this.expireAfter = expireAfter;
+    }
+
+    /**
+     * Returns true if second-level writes are performed in the background.
+     */
+    public boolean isWriteBehind() {
+      return writeBehind;
+    }
+
+    public void setWriteBehind(final boolean writeBehind) {
+      this.writeBehind = writeBehind;
+    }
+
+    @Override
+    public Cache create() throws Exception {
+      checkNotNull(first, "Missing required first-level cache");
+      checkNotNull(second, "Missing required second-level cache");
+      Cache firstCache = first.create();
+      try {
+        return new TieredCache(firstCache, second.create(), expireAfter != null ? expireAfter : expireAfter(second),
+            writeBehind);
+      }
+      catch (Exception e) {
+        firstCache.close();
+        throw e;
+      }
+    }
+
+    @Nullable
+    private static Duration expireAfter(final CacheConfiguration config) {
+      if (config instanceof DirectoryCache.Configuration) {
+        return ((DirectoryCache.Configuration) config).getExpireAfter();
+      }
+      if (config instanceof LogCache.Configuration) {
+        return ((LogCache.Configuration) config).getExpireAfter();
+      }
+      if (config instanceof OffHeapCache.Configuration) {
+        return ((OffHeapCache.Configuration) config).getExpireAfter();
+      }
+      return null;
+    }
+  }
+}
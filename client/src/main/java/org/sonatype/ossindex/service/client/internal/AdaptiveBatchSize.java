@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2018-present Sonatype, Inc. All rights reserved.
+ *
+ * This program is licensed to you under the Apache License Version 2.0,
+ * and you may not use this file except in compliance with the Apache License Version 2.0.
+ * You may obtain a copy of the Apache License Version 2.0 at http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the Apache License Version 2.0 is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Apache License Version 2.0 for the specific language governing permissions and limitations there under.
+ */
+package org.sonatype.ossindex.service.client.internal;
+
+import com.google.common.base.MoreObjects;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Batch-size which adapts to observed batch requests; additive-increase, multiplicative-decrease.
+ *
+ * Grows while batches complete within the target round-trip time and response size; halves when either is
+ * exceeded, or when a batch is throttled or fails.  When not adaptive the size stays fixed.
+ *
+ * @since 1.8.3
+ */
+public class AdaptiveBatchSize
+{
+  private static final Logger log = LoggerFactory.getLogger(AdaptiveBatchSize.class);
+
+  public static final int MIN_SIZE = 1;
+
+  public static final int MAX_SIZE = 1024;
+
+  private static final int ADDITIVE_INCREASE = 16;
+
+  private final boolean adaptive;
+
+  private final long targetLatency;
+
+  private final long maxResponseSize;
+
+  private volatile int size;
+
+  public AdaptiveBatchSize(final int initialSize,
+                           final boolean adaptive,
+                           final long targetLatency,
+                           final long maxResponseSize)
+  {
+    checkArgument(initialSize >= MIN_SIZE && initialSize <= MAX_SIZE, "Batch-size out of range");
+    this.size = initialSize;
+    this.adaptive = adaptive;
+    this.targetLatency = targetLatency;
+    this.maxResponseSize = maxResponseSize;
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("size", size)
+        .add("adaptive", adaptive)
+        .add("targetLatency", targetLatency)
+        .add("maxResponseSize", maxResponseSize)
+        .toString();
+  }
+
+  /**
+   * Returns the current batch-size.
+   */
+  public int get() {
+    return size;
+  }
+
+  /**
+   * Record a completed batch.
+   *
+   * Only full batches of the current size grow it; a short trailing batch says little about whether a larger one
+   * would fit.  Batches larger than the current size were taken before the last decrease and are ignored, so
+   * concurrent slow batches halve the size once rather than once each.
+   *
+   * @param count        number of coordinates requested.
+   * @param latency      round-trip time in milliseconds.
+   * @param responseSize size of the response in bytes.
+   */
+  public void completed(final int count, final long latency, final long responseSize) {
+    if (!adaptive) {
+      return;
+    }
+    if ((targetLatency > 0 && latency > targetLatency) || (maxResponseSize > 0 && responseSize > maxResponseSize)) {
+      decrease(count, "latency: " + latency + " ms, response-size: " + responseSize);
+    }
+    else {
+      increase(count);
+    }
+  }
+
+  /**
+   * Record a throttled or failed batch.
+   *
+   * @param count number of coordinates requested.
+   */
+  public void failed(final int count) {
+    if (adaptive) {
+      decrease(count, "failed");
+    }
+  }
+
+  private synchronized void increase(final int count) {
+    if (count != size) {
+      return;
+    }
+    int previous = size;
+    size = Math.min(MAX_SIZE, previous + ADDITIVE_INCREASE);
+    if (size != previous) {
+      log.trace("Batch-size increased: {} -> {}", previous, size);
+    }
+  }
+
+  private synchronized void decrease(final int count, final String reason) {
+    if (count > size) {
+      return;
+    }
+    int previous = size;
+    size = Math.max(MIN_SIZE, previous / 2);
+    if (size != previous) {
+      log.debug("Batch-size decreased: {} -> {}; {}", previous, size, reason);
+    }
+  }
+}
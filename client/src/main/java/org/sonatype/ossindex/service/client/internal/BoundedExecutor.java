@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2018-present Sonatype, Inc. All rights reserved.
+ *
+ * This program is licensed to you under the Apache License Version 2.0,
+ * and you may not use this file except in compliance with the Apache License Version 2.0.
+ * You may obtain a copy of the Apache License Version 2.0 at http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the Apache License Version 2.0 is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Apache License Version 2.0 for the specific language governing permissions and limitations there under.
+ */
+package org.sonatype.ossindex.service.client.internal;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+
+import com.google.common.base.MoreObjects;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * {@link Executor} which limits the number of tasks concurrently running on a delegate executor.
+ *
+ * Tasks submitted beyond the limit are queued and dispatched to the delegate as running tasks complete;
+ * submission never blocks the caller.
+ *
+ * @since 1.8.3
+ */
+public class BoundedExecutor
+    implements Executor
+{
+  private static final Logger log = LoggerFactory.getLogger(BoundedExecutor.class);
+
+  private final Executor delegate;
+
+  private final int limit;
+
+  private final Queue<Runnable> queue = new ArrayDeque<>();
+
+  private final Object lock = new Object();
+
+  private int running;
+
+  public BoundedExecutor(final Executor delegate, final int limit) {
+    this.delegate = checkNotNull(delegate);
+    checkArgument(limit > 0, "Limit must be greater than zero");
+    this.limit = limit;
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("delegate", delegate)
+        .add("limit", limit)
+        .toString();
+  }
+
+  @Override
+  public void execute(final Runnable task) {
+    checkNotNull(task);
+    synchronized (lock) {
+      queue.add(task);
+    }
+    dispatch(true);
+  }
+
+  /**
+   * Hand queued tasks to the delegate while under the limit.
+   *
+   * @param propagate whether rejection by the delegate should be propagated to the caller.
+   */
+  private void dispatch(final boolean propagate) {
+    while (true) {
+      final Runnable task;
+      synchronized (lock) {
+        if (running >= limit || queue.isEmpty()) {
+          return;
+        }
+        task = queue.poll();
+        running++;
+      }
+
+      try {
+        delegate.execute(new Runnable()
+        {
+          @Override
+          public void run() {
+            try {
+              task.run();
+            }
+            finally {
+              synchronized (lock) {
+                running--;
+              }
+              dispatch(false);
+            }
+          }
+        });
+      }
+      catch (RuntimeException e) {
+        synchronized (lock) {
+          running--;
+        }
+        if (propagate) {
+          throw e;
+        }
+
+        // nobody to report to; make sure anyone waiting on the task does not wait forever
+        log.warn("Delegate rejected task: {}", task, e);
+        if (task instanceof Future) {
+          ((Future<?>) task).cancel(false);
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2018-present Sonatype, Inc. All rights reserved.
+ *
+ * This program is licensed to you under the Apache License Version 2.0,
+ * and you may not use this file except in compliance with the Apache License Version 2.0.
+ * You may obtain a copy of the Apache License Version 2.0 at http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the Apache License Version 2.0 is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Apache License Version 2.0 for the specific language governing permissions and limitations there under.
+ */
+package org.sonatype.ossindex.service.client.internal;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Latency histogram.
+ *
+ * Millisecond values are counted in logarithmic buckets, four per power of two, so percentiles are reported with at
+ * most 25% relative error in constant space.
+ *
+ * @since 1.8.3
+ */
+class LatencyHistogram
+{
+  private static final int SUB_BUCKETS = 4;
+
+  private static final int SUB_BUCKET_BITS = 2;
+
+  private final AtomicLongArray counts = new AtomicLongArray(64 * SUB_BUCKETS);
+
+  private final AtomicLong max = new AtomicLong();
+
+  public void record(final long millis) {
+    long value = Math.max(0, millis);
+    counts.incrementAndGet(index(value));
+
+    long current;
+    while ((current = max.get()) < value && !max.compareAndSet(current, value)) {
+      // retry
+    }
+  }
+
+  private static int index(final long value) {
+    if (value < SUB_BUCKETS) {
+      return (int) value;
+    }
+    int exponent = 63 - Long.numberOfLeadingZeros(value);
+    int sub = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+    return (exponent - 1) * SUB_BUCKETS + sub;
+  }
+
+  /**
+   * Returns the largest value counted in bucket.
+   */
+  private static long upperBound(final int index) {
+    if (index < SUB_BUCKETS) {
+      return index;
+    }
+    int exponent = index / SUB_BUCKETS + 1;
+    int sub = index % SUB_BUCKETS;
+    long width = 1L << (exponent - SUB_BUCKET_BITS);
+    return (SUB_BUCKETS + sub) * width + width - 1;
+  }
+
+  public long getMax() {
+    return max.get();
+  }
+
+  /**
+   * Returns the value at given quantile; or zero if nothing was recorded.
+   */
+  public long getValueAt(final double quantile) {
+    checkArgument(quantile >= 0 && quantile <= 1, "Quantile out of range: %s", quantile);
+
+    long[] snapshot = new long[counts.length()];
+    long total = 0;
+    for (int i = 0; i < snapshot.length; i++) {
+      snapshot[i] = counts.get(i);
+      total += snapshot[i];
+    }
+    if (total == 0) {
+      return 0;
+    }
+
+    long rank = Math.max(1, (long) Math.ceil(quantile * total));
+    long seen = 0;
+    for (int i = 0; i < snapshot.length; i++) {
+      seen += snapshot[i];
+      if (seen >= rank) {
+        return Math.min(upperBound(i), getMax());
+      }
+    }
+    return getMax();
+  }
+}
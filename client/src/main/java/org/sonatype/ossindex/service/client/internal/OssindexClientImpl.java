@@ -12,32 +12,78 @@
  */
 package org.sonatype.ossindex.service.client.internal;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
 import java.net.URI;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
-import java.util.LinkedList;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nullable;
 
 import org.sonatype.ossindex.service.api.componentreport.ComponentReport;
 import org.sonatype.ossindex.service.api.componentreport.ComponentReportRequest;
+import org.sonatype.ossindex.service.client.ClientStats;
 import org.sonatype.ossindex.service.client.OssindexClient;
 import org.sonatype.ossindex.service.client.OssindexClientConfiguration;
+import org.sonatype.ossindex.service.client.RefreshAheadConfiguration;
 import org.sonatype.ossindex.service.client.cache.CacheConfiguration;
 import org.sonatype.ossindex.service.client.cache.Cache;
+import org.sonatype.ossindex.service.client.cache.CacheEntry;
 import org.sonatype.ossindex.service.client.cache.MemoryCache;
 import org.sonatype.ossindex.service.client.marshal.Marshaller;
+import org.sonatype.ossindex.service.client.marshal.Marshaller.ElementHandler;
+import org.sonatype.ossindex.service.client.transport.RateLimitConfiguration;
 import org.sonatype.ossindex.service.client.transport.Transport;
+import org.sonatype.ossindex.service.client.transport.Transport.PayloadWriter;
+import org.sonatype.ossindex.service.client.transport.Transport.ResponseFunction;
+import org.sonatype.ossindex.service.client.transport.Transport.StatusException;
+import org.sonatype.ossindex.service.client.transport.Transport.TransportException;
+import org.sonatype.ossindex.service.client.util.StripedCounter;
 
 import org.sonatype.goodies.packageurl.PackageUrl;
 
+import com.google.common.base.Charsets;
+import com.google.common.base.Function;
 import com.google.common.base.Stopwatch;
+import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableList;
-import com.google.common.reflect.TypeToken;
+import com.google.common.io.CountingInputStream;
+import com.google.common.io.CountingOutputStream;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListenableFutureTask;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -57,6 +103,8 @@ public class OssindexClientImpl
 {
   private static final Logger log = LoggerFactory.getLogger(OssindexClientImpl.class);
 
+  private static final long EXECUTOR_KEEP_ALIVE_SECONDS = 30;
+
   private final Transport transport;
 
   private final Marshaller marshaller;
@@ -65,7 +113,47 @@ public class OssindexClientImpl
 
   private final URI baseUrl;
 
-  private final int batchSize;
+  private final AdaptiveBatchSize batchSize;
+
+  private final int maxConcurrentBatches;
+
+  private final Executor batchExecutor;
+
+  private final RequestThrottle throttle;
+
+  private final StripedCounter batchCount = new StripedCounter();
+
+  private final StripedCounter coordinateCount = new StripedCounter();
+
+  private final StripedCounter bytesSent = new StripedCounter();
+
+  private final StripedCounter bytesReceived = new StripedCounter();
+
+  private final LatencyHistogram latency = new LatencyHistogram();
+
+  /**
+   * Age after which cached reports are refreshed; disabled if negative.
+   */
+  private final long staleAfter;
+
+  private final boolean staleWhileRevalidate;
+
+  @Nullable
+  private final RefreshAhead refreshAhead;
+
+  @Nullable
+  private final ScheduledExecutorService refresher;
+
+  /**
+   * Pending results of coordinates currently being requested; concurrent callers join these instead of re-requesting.
+   */
+  private final ConcurrentMap<PackageUrl, InflightRequest> inflight = new ConcurrentHashMap<>();
+
+  /**
+   * Executor created by the client, if any; shutdown on {@link #close()}.
+   */
+  @Nullable
+  private final ExecutorService ownedExecutor;
 
   public OssindexClientImpl(final OssindexClientConfiguration config,
                             final Transport transport,
@@ -84,23 +172,100 @@ public class OssindexClientImpl
     log.debug("Base URL: {}", baseUrl);
 
     checkState(config.getBatchSize() > 0 && config.getBatchSize() <= 1024, "Batch-size out of range");
-    this.batchSize = config.getBatchSize();
+    this.batchSize = new AdaptiveBatchSize(config.getBatchSize(), config.isAdaptiveBatchSize(),
+        config.getTargetBatchLatency(), config.getMaxBatchResponseSize());
     log.debug("Batch size: {}", batchSize);
 
-    // initialize components
+    checkState(config.getMaxConcurrentBatches() > 0, "Max concurrent batches out of range");
+    this.maxConcurrentBatches = config.getMaxConcurrentBatches();
+    log.debug("Max concurrent batches: {}", maxConcurrentBatches);
+
+    Executor executor = config.getExecutor();
+    if (executor != null) {
+      this.ownedExecutor = null;
+      this.batchExecutor = new BoundedExecutor(executor, maxConcurrentBatches);
+    }
+    else {
+      // threads are only started on demand and time out when idle
+      ThreadPoolExecutor pool = new ThreadPoolExecutor(maxConcurrentBatches, maxConcurrentBatches,
+          EXECUTOR_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+          new ThreadFactoryBuilder()
+              .setNameFormat("ossindex-client-%d")
+              .setDaemon(true)
+              .build());
+      pool.allowCoreThreadTimeOut(true);
+      this.ownedExecutor = pool;
+      this.batchExecutor = pool;
+    }
+    log.debug("Batch executor: {}", batchExecutor);
+
+    RateLimitConfiguration rateLimitConfiguration = config.getRateLimitConfiguration();
+    if (rateLimitConfiguration == null) {
+      rateLimitConfiguration = new RateLimitConfiguration();
+    }
+    this.throttle = new RequestThrottle(rateLimitConfiguration);
+    log.debug("Throttle: {}", throttle);
+
+    this.staleAfter = config.getStaleAfter();
+    this.staleWhileRevalidate = config.isStaleWhileRevalidate();
+    log.debug("Stale after: {}, while revalidate: {}", staleAfter, staleWhileRevalidate);
+
+    RefreshAheadConfiguration refreshAheadConfiguration = config.getRefreshAheadConfiguration();
+    if (refreshAheadConfiguration != null) {
+      checkState(refreshAheadConfiguration.getInterval() > 0, "Refresh-ahead interval out of range");
+      this.refreshAhead = new RefreshAhead(refreshAheadConfiguration);
+      this.refresher = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+          .setNameFormat("ossindex-client-refresher")
+          .setDaemon(true)
+          .build());
+    }
+    else {
+      this.refreshAhead = null;
+      this.refresher = null;
+    }
+    log.debug("Refresh ahead: {}", refreshAhead);
+
+    // initialize components; release what has been acquired if that fails
+    Cache cache = null;
     try {
       CacheConfiguration cacheConfiguration = config.getCacheConfiguration();
       if (cacheConfiguration == null) {
         cacheConfiguration = new MemoryCache.Configuration();
       }
-      this.reportCache = cacheConfiguration.create();
-      log.debug("Report cache: {}", reportCache);
+      cache = cacheConfiguration.create();
+      log.debug("Report cache: {}", cache);
 
       transport.init(config);
     }
     catch (Exception e) {
+      if (refresher != null) {
+        refresher.shutdownNow();
+      }
+      if (ownedExecutor != null) {
+        ownedExecutor.shutdownNow();
+      }
+      if (cache != null) {
+        try {
+          cache.close();
+        }
+        catch (Exception suppressed) {
+          e.addSuppressed(suppressed);
+        }
+      }
       throw new RuntimeException(e);
     }
+    this.reportCache = cache;
+
+    // background refresh only starts once fully constructed
+    if (refresher != null) {
+      refresher.scheduleWithFixedDelay(new Runnable()
+      {
+        @Override
+        public void run() {
+          refreshAhead();
+        }
+      }, refreshAheadConfiguration.getInterval(), refreshAheadConfiguration.getInterval(), TimeUnit.MILLISECONDS);
+    }
   }
 
   /**
@@ -108,6 +273,13 @@ public class OssindexClientImpl
    */
   @Override
   public void close() throws Exception {
+    if (refresher != null) {
+      refresher.shutdownNow();
+    }
+    if (ownedExecutor != null) {
+      ownedExecutor.shutdownNow();
+    }
+
     try {
       transport.close();
     }
@@ -123,6 +295,25 @@ public class OssindexClientImpl
     }
   }
 
+  /**
+   * @since 1.8.3
+   */
+  @Override
+  public ClientStats stats() {
+    return new ClientStats(batchCount.sum(), coordinateCount.sum(), bytesSent.sum(), bytesReceived.sum(),
+        latency.getValueAt(0.5), latency.getValueAt(0.9), latency.getValueAt(0.99), latency.getMax(),
+        reportCache.stats());
+  }
+
+  /**
+   * Returns the current batch-size; varies over time when adaptive.
+   *
+   * @since 1.8.3
+   */
+  public int getBatchSize() {
+    return batchSize.get();
+  }
+
   /**
    * Normalize base-URL, must end with trailing "/".
    */
@@ -135,47 +326,255 @@ public class OssindexClientImpl
 
   @Override
   public Map<PackageUrl, ComponentReport> requestComponentReports(final List<PackageUrl> coordinates) throws Exception {
+    return get(requestComponentReportsAsync(coordinates));
+  }
+
+  /**
+   * @since 1.8.3
+   */
+  @Override
+  public ListenableFuture<Map<PackageUrl, ComponentReport>> requestComponentReportsAsync(
+      final List<PackageUrl> coordinates)
+  {
     checkNotNull(coordinates);
     checkArgument(!coordinates.isEmpty(), "One or more coordinates required");
 
     log.debug("Requesting {} component-reports", coordinates.size());
-    Stopwatch watch = Stopwatch.createStarted();
+    final Stopwatch watch = Stopwatch.createStarted();
 
     // coordinates -> component-report lookup
-    Map<PackageUrl, ComponentReport> purlReports = new HashMap<>(coordinates.size());
+    final Map<PackageUrl, ComponentReport> purlReports = new HashMap<>(coordinates.size());
+
+    // resolve cached reports in bulk and generate set of un-cached requests; stale reports are requested again
+    Set<PackageUrl> uncached = new LinkedHashSet<>(coordinates);
+    final Map<PackageUrl, ComponentReport> staleReports = new HashMap<>();
+    long now = System.currentTimeMillis();
+    for (Entry<PackageUrl, CacheEntry> entry : reportCache.getAllEntriesPresent(uncached).entrySet()) {
+      if (refreshAhead != null && entry.getValue().getWriteTime() != CacheEntry.UNKNOWN_WRITE_TIME) {
+        refreshAhead.record(entry.getKey(), entry.getValue().getWriteTime());
+      }
+      if (isStale(entry.getValue(), now)) {
+        staleReports.put(entry.getKey(), entry.getValue().getReport());
+      }
+      else {
+        purlReports.put(entry.getKey(), entry.getValue().getReport());
+      }
+    }
+    uncached.removeAll(purlReports.keySet());
+    if (refreshAhead != null) {
+      // requested reports are written about now
+      for (PackageUrl purl : uncached) {
+        if (!staleReports.containsKey(purl)) {
+          refreshAhead.record(purl, now);
+        }
+      }
+    }
+    log.debug("Found {} cached reports; {} stale", purlReports.size() + staleReports.size(), staleReports.size());
+
+    // serve stale reports and refresh them in the background
+    if (staleWhileRevalidate && !staleReports.isEmpty()) {
+      purlReports.putAll(staleReports);
+      uncached.removeAll(staleReports.keySet());
+      revalidate(staleReports.keySet());
+    }
+
+    // claim un-cached coordinates which are not already in flight; join the pending result of the others
+    final List<PackageUrl> pendingCoordinates = new ArrayList<>(uncached.size());
+    List<ListenableFuture<ComponentReport>> pending = new ArrayList<>(uncached.size());
+    Map<PackageUrl, InflightRequest> claimed = new LinkedHashMap<>();
+    for (PackageUrl purl : uncached) {
+      InflightRequest request = new InflightRequest();
+      ListenableFuture<ComponentReport> result = join(purl, request);
+      if (result == null) {
+        // request may have completed between cache lookup and claim
+        CacheEntry entry = reportCache.getEntryIfPresent(purl);
+        if (entry != null && !isStale(entry, System.currentTimeMillis())) {
+          // complete for any caller which joined in the meantime
+          request.future.set(entry.getReport());
+          inflight.remove(purl, request);
+          purlReports.put(purl, entry.getReport());
+          continue;
+        }
+        claimed.put(purl, request);
+        result = request.waiter();
+      }
+
+      // fall back to stale report if the request fails
+      ComponentReport stale = staleReports.get(purl);
+      if (stale != null) {
+        result = withFallback(purl, result, stale);
+      }
+      pending.add(result);
+      pendingCoordinates.add(purl);
+    }
+
+    // complete immediately if everything was cached
+    if (pending.isEmpty()) {
+      return Futures.immediateFuture(orderResults(coordinates, purlReports, watch));
+    }
+
+    // request claimed reports in batches; reports are appended to cache as they are received
+    if (!claimed.isEmpty()) {
+      requestBatches(claimed);
+    }
+
+    return Futures.transform(Futures.allAsList(pending),
+        new Function<List<ComponentReport>, Map<PackageUrl, ComponentReport>>()
+        {
+          @Override
+          public Map<PackageUrl, ComponentReport> apply(final List<ComponentReport> reports) {
+            for (int i = 0; i < reports.size(); i++) {
+              purlReports.put(pendingCoordinates.get(i), reports.get(i));
+            }
+            return orderResults(coordinates, purlReports, watch);
+          }
+        }, MoreExecutors.directExecutor());
+  }
+
+  /**
+   * Join the in-flight request for coordinates, if any; otherwise the given request is claimed and {@code null}
+   * returned.
+   */
+  @Nullable
+  private ListenableFuture<ComponentReport> join(final PackageUrl coordinates, final InflightRequest request) {
+    while (true) {
+      InflightRequest existing = inflight.putIfAbsent(coordinates, request);
+      if (existing == null) {
+        return null;
+      }
+      ListenableFuture<ComponentReport> result = existing.join();
+      if (result != null) {
+        log.debug("Joining in-flight request for: {}", coordinates);
+        return result;
+      }
+      // existing request was cancelled by all of its callers; replace it
+      inflight.remove(coordinates, existing);
+    }
+  }
+
+  private boolean isStale(final CacheEntry entry, final long now) {
+    return staleAfter >= 0 && entry.isOlderThan(staleAfter, now);
+  }
+
+  /**
+   * Request frequently requested reports which are due for refresh.
+   */
+  private void refreshAhead() {
+    try {
+      Set<PackageUrl> due = refreshAhead.due(System.currentTimeMillis());
+      if (!due.isEmpty()) {
+        log.debug("Refreshing ahead {} component-reports", due.size());
+        // coordinates are only considered refreshed once their report has been received
+        for (final Entry<PackageUrl, ListenableFuture<ComponentReport>> entry : revalidate(due).entrySet()) {
+          Futures.addCallback(entry.getValue(), new FutureCallback<ComponentReport>()
+          {
+            @Override
+            public void onSuccess(final ComponentReport report) {
+              refreshAhead.refreshed(entry.getKey(), System.currentTimeMillis());
+            }
+
+            @Override
+            public void onFailure(final Throwable cause) {
+              refreshAhead.failed(entry.getKey());
+            }
+          }, MoreExecutors.directExecutor());
+        }
+      }
+    }
+    catch (Exception e) {
+      log.warn("Refresh-ahead failed", e);
+    }
+  }
 
-    // resolve cached reports and generate list of un-cached requests
-    List<PackageUrl> uncached = new LinkedList<>();
+  /**
+   * Request reports in the background to refresh stale or soon expiring cache entries; coordinates already in flight
+   * are not requested again.
+   *
+   * @return pending result of each coordinates.
+   */
+  private Map<PackageUrl, ListenableFuture<ComponentReport>> revalidate(final Set<PackageUrl> coordinates) {
+    // revalidation holds the waiter of its claimed requests; joining callers can not cancel them
+    Map<PackageUrl, ListenableFuture<ComponentReport>> results = new LinkedHashMap<>();
+    Map<PackageUrl, InflightRequest> claimed = new LinkedHashMap<>();
+    List<ListenableFuture<ComponentReport>> futures = new ArrayList<>(coordinates.size());
     for (PackageUrl purl : coordinates) {
-      ComponentReport report = reportCache.getIfPresent(purl);
-      if (report != null) {
-        log.debug("Found cached report for: {}", purl);
-        purlReports.put(purl, report);
+      InflightRequest request = new InflightRequest();
+      InflightRequest existing = inflight.putIfAbsent(purl, request);
+      if (existing == null) {
+        claimed.put(purl, request);
+        futures.add(request.future);
+        results.put(purl, request.future);
       }
       else {
-        uncached.add(purl);
+        results.put(purl, Futures.nonCancellationPropagating(existing.future));
       }
     }
+    if (claimed.isEmpty()) {
+      return results;
+    }
 
-    // request any un-cached reports in batches and append to cache
-    if (!uncached.isEmpty()) {
-      Set<PackageUrl> batch = new HashSet<>(batchSize);
+    log.debug("Revalidating {} stale component-reports", claimed.size());
+    Futures.addCallback(Futures.allAsList(futures), new FutureCallback<List<ComponentReport>>()
+    {
+      @Override
+      public void onSuccess(final List<ComponentReport> result) {
+        log.debug("Revalidated {} component-reports", result.size());
+      }
 
-      Iterator<PackageUrl> iter = uncached.iterator();
-      while (iter.hasNext()) {
-        batch.add(iter.next());
+      @Override
+      public void onFailure(final Throwable cause) {
+        log.warn("Failed to revalidate stale component-reports: {}", cause.toString());
+      }
+    }, MoreExecutors.directExecutor());
+    requestBatches(claimed);
+    return results;
+  }
 
-        // perform request if batch size reached or if there are no more requests after current
-        if (batch.size() == batchSize || !iter.hasNext()) {
-          Map<PackageUrl, ComponentReport> reports = doRequestComponentReports(batch);
-          reportCache.putAll(reports);
-          purlReports.putAll(reports);
-          batch.clear();
+  /**
+   * Complete with stale report if the request fails; cancellation propagates both ways.
+   */
+  private static ListenableFuture<ComponentReport> withFallback(final PackageUrl coordinates,
+                                                                final ListenableFuture<ComponentReport> future,
+                                                                final ComponentReport stale)
+  {
+    final SettableFuture<ComponentReport> result = SettableFuture.create();
+    Futures.addCallback(future, new FutureCallback<ComponentReport>()
+    {
+      @Override
+      public void onSuccess(final ComponentReport report) {
+        result.set(report);
+      }
+
+      @Override
+      public void onFailure(final Throwable cause) {
+        if (future.isCancelled()) {
+          result.cancel(false);
+        }
+        else {
+          log.warn("Using stale report for: {}; {}", coordinates, cause.toString());
+          result.set(stale);
         }
       }
-    }
+    }, MoreExecutors.directExecutor());
+    result.addListener(new Runnable()
+    {
+      @Override
+      public void run() {
+        if (result.isCancelled()) {
+          future.cancel(false);
+        }
+      }
+    }, MoreExecutors.directExecutor());
+    return result;
+  }
 
-    // reform results in the same order as given coordinates
+  /**
+   * Reform results in the same order as given coordinates.
+   */
+  private static Map<PackageUrl, ComponentReport> orderResults(final List<PackageUrl> coordinates,
+                                                               final Map<PackageUrl, ComponentReport> purlReports,
+                                                               final Stopwatch watch)
+  {
     Map<PackageUrl, ComponentReport> results = new LinkedHashMap<>(coordinates.size());
     for (PackageUrl purl : coordinates) {
       results.put(purl, purlReports.get(purl));
@@ -186,43 +585,350 @@ public class OssindexClientImpl
     return results;
   }
 
-  @SuppressWarnings("UnstableApiUsage")
-  private static final TypeToken<List<ComponentReport>> LIST_COMPONENT_REPORT = new TypeToken<List<ComponentReport>>() { };
+  /**
+   * Request reports in batches; up to {@link #maxConcurrentBatches} batches are in flight at once.
+   *
+   * Each claimed future is completed with the report of its coordinates once its batch completes, and then released
+   * from {@link #inflight}.  Remaining batches are cancelled as soon as any batch fails, or once every claimed
+   * future has been cancelled by all of its waiters.
+   */
+  private void requestBatches(final Map<PackageUrl, InflightRequest> claimed) {
+    Map<PackageUrl, SettableFuture<ComponentReport>> futures = new LinkedHashMap<>(claimed.size());
+    for (Entry<PackageUrl, InflightRequest> entry : claimed.entrySet()) {
+      futures.put(entry.getKey(), entry.getValue().future);
+    }
+    final BatchRun run = new BatchRun(futures);
+    for (final Entry<PackageUrl, InflightRequest> entry : claimed.entrySet()) {
+      final SettableFuture<ComponentReport> future = entry.getValue().future;
+      future.addListener(new Runnable()
+      {
+        @Override
+        public void run() {
+          inflight.remove(entry.getKey(), entry.getValue());
+          if (future.isCancelled()) {
+            run.cancelled();
+          }
+        }
+      }, MoreExecutors.directExecutor());
+    }
+    run.start();
+  }
+
+  /**
+   * Pending result of coordinates being requested, shared by all callers waiting on it.
+   *
+   * Each waiter gets its own view of the result; cancelling a view only cancels the request once no other waiter
+   * remains.
+   */
+  private static class InflightRequest
+  {
+    private final SettableFuture<ComponentReport> future = SettableFuture.create();
+
+    /**
+     * Number of waiters; the claiming caller, or background revalidation which never cancels, is the first.
+     */
+    private int waiters = 1;
+
+    /**
+     * Add a waiter; returns {@code null} if the request has already been cancelled.
+     */
+    @Nullable
+    private synchronized ListenableFuture<ComponentReport> join() {
+      if (future.isCancelled()) {
+        return null;
+      }
+      waiters++;
+      return waiter();
+    }
+
+    /**
+     * View of the result for a single waiter.
+     */
+    private ListenableFuture<ComponentReport> waiter() {
+      final ListenableFuture<ComponentReport> result = Futures.nonCancellationPropagating(future);
+      result.addListener(new Runnable()
+      {
+        @Override
+        public void run() {
+          if (result.isCancelled() && !future.isDone()) {
+            release();
+          }
+        }
+      }, MoreExecutors.directExecutor());
+      return result;
+    }
+
+    private synchronized void release() {
+      if (--waiters == 0) {
+        future.cancel(false);
+      }
+    }
+  }
+
+  /**
+   * Batches of a single request.
+   *
+   * Batches are taken from the remaining coordinates as earlier batches complete, so each is sized by the
+   * current {@link #batchSize}.
+   */
+  private class BatchRun
+  {
+    private final Map<PackageUrl, SettableFuture<ComponentReport>> claimed;
+
+    private final Iterator<PackageUrl> remaining;
+
+    private final List<ListenableFuture<?>> running = new ArrayList<>();
+
+    private boolean failed;
+
+    private BatchRun(final Map<PackageUrl, SettableFuture<ComponentReport>> claimed) {
+      this.claimed = claimed;
+      this.remaining = ImmutableList.copyOf(claimed.keySet()).iterator();
+    }
+
+    private void start() {
+      int size = batchSize.get();
+      int batches = (claimed.size() + size - 1) / size;
+      for (int i = 0; i < Math.min(batches, maxConcurrentBatches); i++) {
+        next();
+      }
+    }
+
+    /**
+     * Submit the next batch, if any remain.
+     */
+    private void next() {
+      final Set<PackageUrl> batch = new LinkedHashSet<>();
+      synchronized (this) {
+        int size = batchSize.get();
+        while (!failed && batch.size() < size && remaining.hasNext()) {
+          PackageUrl purl = remaining.next();
+          // skip coordinates no longer waited on
+          if (!claimed.get(purl).isDone()) {
+            batch.add(purl);
+          }
+        }
+      }
+      if (batch.isEmpty()) {
+        return;
+      }
+
+      ListenableFuture<Map<PackageUrl, ComponentReport>> future;
+      try {
+        future = submitBatch(batch);
+      }
+      catch (RejectedExecutionException e) {
+        fail(e);
+        return;
+      }
+      synchronized (this) {
+        running.add(future);
+      }
+
+      Futures.addCallback(future, new FutureCallback<Map<PackageUrl, ComponentReport>>()
+      {
+        @Override
+        public void onSuccess(final Map<PackageUrl, ComponentReport> reports) {
+          for (PackageUrl purl : batch) {
+            claimed.get(purl).set(reports.get(purl));
+          }
+          next();
+        }
+
+        @Override
+        public void onFailure(final Throwable cause) {
+          fail(cause);
+        }
+      }, MoreExecutors.directExecutor());
+    }
+
+    /**
+     * Cancel running batches once every claimed future is complete; remaining batches skip cancelled coordinates.
+     */
+    private void cancelled() {
+      for (SettableFuture<ComponentReport> future : claimed.values()) {
+        if (!future.isDone()) {
+          return;
+        }
+      }
+      fail(new CancellationException("Cancelled by caller"));
+    }
+
+    /**
+     * Fail all incomplete coordinates and cancel running batches.
+     */
+    private void fail(final Throwable cause) {
+      List<ListenableFuture<?>> futures;
+      synchronized (this) {
+        if (failed) {
+          return;
+        }
+        failed = true;
+        futures = new ArrayList<>(running);
+      }
+
+      // fail coordinates first, so callers observe the cause rather than cancellation
+      for (SettableFuture<ComponentReport> future : claimed.values()) {
+        future.setException(cause);
+      }
+      cancel(futures);
+    }
+  }
+
+  /**
+   * Submit batch request to executor.
+   */
+  private ListenableFuture<Map<PackageUrl, ComponentReport>> submitBatch(final Set<PackageUrl> coordinates) {
+    ListenableFutureTask<Map<PackageUrl, ComponentReport>> task = ListenableFutureTask.create(
+        new Callable<Map<PackageUrl, ComponentReport>>()
+        {
+          @Override
+          public Map<PackageUrl, ComponentReport> call() throws Exception {
+            return doRequestComponentReports(coordinates);
+          }
+        });
+    batchExecutor.execute(task);
+    return task;
+  }
+
+  private static void cancel(final List<? extends ListenableFuture<?>> futures) {
+    for (ListenableFuture<?> future : futures) {
+      future.cancel(true);
+    }
+  }
+
+  /**
+   * Wait for future; propagating the cause of failure.
+   */
+  private static <T> T get(final ListenableFuture<T> future) throws Exception {
+    try {
+      return future.get();
+    }
+    catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      Throwables.propagateIfPossible(cause, Exception.class);
+      throw new RuntimeException(cause);
+    }
+    catch (InterruptedException e) {
+      future.cancel(true);
+      throw e;
+    }
+  }
 
   /**
    * Fetch component reports.
+   *
+   * The response is decoded incrementally; each report is appended to cache as soon as it has been read.
    */
   private Map<PackageUrl, ComponentReport> doRequestComponentReports(final Set<PackageUrl> coordinates)
       throws Exception
   {
     log.debug("Requesting {} un-cached component-reports", coordinates.size());
 
-    ComponentReportRequest request = new ComponentReportRequest();
+    final ComponentReportRequest request = new ComponentReportRequest();
     request.setCoordinates(ImmutableList.copyOf(coordinates));
 
-    URI url = baseUrl.resolve("api/v3/component-report");
-    String response = transport.post(url, REQUEST_V1_JSON, marshaller.marshal(request), REPORT_V1_JSON);
-    List<ComponentReport> reports = marshaller.unmarshal(response, LIST_COMPONENT_REPORT);
-
-    // puke if the response does not contain the same number of entries as input request
-    checkState(reports.size() == coordinates.size(),
-        "Result size mismatch; expected: %s, have: %s", coordinates.size(), reports.size());
+    // serialize request directly onto the connection rather than materializing the payload
+    PayloadWriter payload = new PayloadWriter()
+    {
+      @Override
+      public void writeTo(final OutputStream output) throws IOException {
+        CountingOutputStream counting = new CountingOutputStream(output);
+        try {
+          marshaller.marshal(request, new BufferedWriter(new OutputStreamWriter(counting, Charsets.UTF_8)));
+        }
+        finally {
+          bytesSent.add(counting.getCount());
+        }
+      }
+    };
 
     // map coordinates to report
-    Map<PackageUrl,ComponentReport> results = new HashMap<>(coordinates.size());
-    for (ComponentReport report : reports) {
-      results.put(report.getCoordinates(), report);
+    final Map<PackageUrl, ComponentReport> results = new HashMap<>(coordinates.size());
+    final AtomicLong responseSize = new AtomicLong();
+
+    ResponseFunction<Integer> function = new ResponseFunction<Integer>()
+    {
+      @Override
+      public Integer apply(final InputStream input) throws IOException {
+        final AtomicInteger count = new AtomicInteger();
+        CountingInputStream counting = new CountingInputStream(input);
+        Reader reader = new InputStreamReader(counting, Charsets.UTF_8);
+        marshaller.unmarshalElements(reader, ComponentReport.class, new ElementHandler<ComponentReport>()
+        {
+          @Override
+          public void handle(final ComponentReport report) {
+            count.incrementAndGet();
+            results.put(report.getCoordinates(), report);
+            reportCache.putAll(Collections.singletonMap(report.getCoordinates(), report));
+          }
+        });
+        responseSize.set(counting.getCount());
+        bytesReceived.add(counting.getCount());
+        return count.get();
+      }
+    };
+
+    // retry throttled requests; pauses apply to all batches of this client
+    URI url = baseUrl.resolve("api/v3/component-report");
+    int count;
+    for (int attempt = 0; ; attempt++) {
+      throttle.acquire();
+      batchCount.increment();
+      coordinateCount.add(coordinates.size());
+      Stopwatch watch = Stopwatch.createStarted();
+      try {
+        count = transport.post(url, REQUEST_V1_JSON, payload, REPORT_V1_JSON, function);
+        batchSize.completed(coordinates.size(), watch.elapsed(TimeUnit.MILLISECONDS), responseSize.get());
+        break;
+      }
+      catch (StatusException e) {
+        batchSize.failed(coordinates.size());
+        long delay = throttle.retryDelay(attempt, e);
+        if (delay < 0) {
+          throw e;
+        }
+        log.debug("Request throttled; status: {}, retrying in: {} ms", e.getStatus(), delay);
+        throttle.pause(delay);
+      }
+      catch (IOException | TransportException e) {
+        batchSize.failed(coordinates.size());
+        throw e;
+      }
+      finally {
+        latency.record(watch.elapsed(TimeUnit.MILLISECONDS));
+      }
     }
 
+    // puke if the response does not contain the same number of entries as input request
+    checkState(count == coordinates.size(),
+        "Result size mismatch; expected: %s, have: %s", coordinates.size(), count);
+
     return results;
   }
 
   @Override
   public ComponentReport requestComponentReport(final PackageUrl coordinates) throws Exception {
+    return get(requestComponentReportAsync(coordinates));
+  }
+
+  /**
+   * @since 1.8.3
+   */
+  @Override
+  public ListenableFuture<ComponentReport> requestComponentReportAsync(final PackageUrl coordinates) {
     checkNotNull(coordinates);
-    Map<PackageUrl, ComponentReport> reports = requestComponentReports(Collections.singletonList(coordinates));
-    ComponentReport result = reports.get(coordinates);
-    checkState(result != null, "Missing component-report for singleton request");
-    return result;
+    ListenableFuture<Map<PackageUrl, ComponentReport>> reports =
+        requestComponentReportsAsync(Collections.singletonList(coordinates));
+
+    return Futures.transform(reports, new Function<Map<PackageUrl, ComponentReport>, ComponentReport>()
+    {
+      @Override
+      public ComponentReport apply(final Map<PackageUrl, ComponentReport> input) {
+        ComponentReport result = input.get(coordinates);
+        checkState(result != null, "Missing component-report for singleton request");
+        return result;
+      }
+    }, MoreExecutors.directExecutor());
   }
 }
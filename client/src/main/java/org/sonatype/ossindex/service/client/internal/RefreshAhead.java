@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2018-present Sonatype, Inc. All rights reserved.
+ *
+ * This program is licensed to you under the Apache License Version 2.0,
+ * and you may not use this file except in compliance with the Apache License Version 2.0.
+ * You may obtain a copy of the Apache License Version 2.0 at http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the Apache License Version 2.0 is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Apache License Version 2.0 for the specific language governing permissions and limitations there under.
+ */
+package org.sonatype.ossindex.service.client.internal;
+
+import java.util.LinkedHashSet;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.sonatype.goodies.packageurl.PackageUrl;
+import org.sonatype.ossindex.service.client.RefreshAheadConfiguration;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Tracks requested coordinates to determine reports due for refresh-ahead.
+ *
+ * @since 1.8.3
+ */
+class RefreshAhead
+{
+  private final long refreshAfter;
+
+  private final int minAccessCount;
+
+  private final Cache<PackageUrl, Access> tracked;
+
+  public RefreshAhead(final RefreshAheadConfiguration config) {
+    checkNotNull(config);
+    checkArgument(config.getRefreshAfter() >= 0, "Refresh-after must not be negative");
+    checkArgument(config.getMaxTracked() > 0, "Max tracked must be greater than zero");
+    this.refreshAfter = config.getRefreshAfter();
+    this.minAccessCount = config.getMinAccessCount();
+    this.tracked = CacheBuilder.newBuilder()
+        .maximumSize(config.getMaxTracked())
+        .build();
+  }
+
+  /**
+   * Record request for coordinates; served by report written at given time.
+   */
+  public void record(final PackageUrl coordinates, final long writeTime) {
+    Access access = tracked.getIfPresent(coordinates);
+    if (access == null) {
+      Access created = new Access(writeTime);
+      access = tracked.asMap().putIfAbsent(coordinates, created);
+      if (access == null) {
+        access = created;
+      }
+    }
+    access.count.incrementAndGet();
+    if (writeTime > access.writeTime) {
+      access.writeTime = writeTime;
+    }
+  }
+
+  /**
+   * Collect coordinates due for refresh; they are not due again until the refresh has completed.
+   *
+   * @see #refreshed(PackageUrl, long)
+   * @see #failed(PackageUrl)
+   */
+  public Set<PackageUrl> due(final long now) {
+    Set<PackageUrl> due = new LinkedHashSet<>();
+    for (Entry<PackageUrl, Access> entry : tracked.asMap().entrySet()) {
+      Access access = entry.getValue();
+      if (!access.refreshing && now - access.writeTime >= refreshAfter && access.count.get() >= minAccessCount) {
+        access.refreshing = true;
+        due.add(entry.getKey());
+      }
+    }
+    return due;
+  }
+
+  /**
+   * Record successful refresh of coordinates; written at given time.  Access count is reset.
+   */
+  public void refreshed(final PackageUrl coordinates, final long writeTime) {
+    Access access = tracked.getIfPresent(coordinates);
+    if (access != null) {
+      access.count.set(0);
+      if (writeTime > access.writeTime) {
+        access.writeTime = writeTime;
+      }
+      access.refreshing = false;
+    }
+  }
+
+  /**
+   * Record failed refresh of coordinates; they are due again at the next check.
+   */
+  public void failed(final PackageUrl coordinates) {
+    Access access = tracked.getIfPresent(coordinates);
+    if (access != null) {
+      access.refreshing = false;
+    }
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("refreshAfter", refreshAfter)
+        .add("minAccessCount", minAccessCount)
+        .add("tracked", tracked.size())
+        .toString();
+  }
+
+  private static class Access
+  {
+    private final AtomicInteger count = new AtomicInteger();
+
+    private volatile long writeTime;
+
+    private volatile boolean refreshing;
+
+    private Access(final long writeTime) {
+      this.writeTime = writeTime;
+    }
+  }
+}
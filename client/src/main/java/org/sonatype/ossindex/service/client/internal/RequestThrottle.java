@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2018-present Sonatype, Inc. All rights reserved.
+ *
+ * This program is licensed to you under the Apache License Version 2.0,
+ * and you may not use this file except in compliance with the Apache License Version 2.0.
+ * You may obtain a copy of the Apache License Version 2.0 at http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the Apache License Version 2.0 is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Apache License Version 2.0 for the specific language governing permissions and limitations there under.
+ */
+package org.sonatype.ossindex.service.client.internal;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nullable;
+
+import org.sonatype.ossindex.service.client.transport.RateLimitConfiguration;
+import org.sonatype.ossindex.service.client.transport.Transport.StatusException;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.util.concurrent.RateLimiter;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Paces requests of a client instance; shared by all batches.
+ *
+ * Combines an optional token-bucket rate-limit with a shared pause, which is extended when the server throttles a
+ * request so that all batches back off together instead of each one failing independently.
+ *
+ * @since 1.8.3
+ */
+public class RequestThrottle
+{
+  private static final int TOO_MANY_REQUESTS = 429;
+
+  private static final int SERVICE_UNAVAILABLE = 503;
+
+  private final RateLimitConfiguration configuration;
+
+  @Nullable
+  private final RateLimiter rateLimiter;
+
+  /**
+   * Time in milliseconds until which all requests are paused.
+   */
+  private final AtomicLong pausedUntil = new AtomicLong();
+
+  public RequestThrottle(final RateLimitConfiguration configuration) {
+    this.configuration = checkNotNull(configuration);
+    if (configuration.getRequestsPerSecond() > 0) {
+      this.rateLimiter = RateLimiter.create(configuration.getRequestsPerSecond());
+    }
+    else {
+      this.rateLimiter = null;
+    }
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("requestsPerSecond", configuration.getRequestsPerSecond())
+        .add("maxRetries", configuration.getMaxRetries())
+        .add("initialBackoff", configuration.getInitialBackoff())
+        .add("maxBackoff", configuration.getMaxBackoff())
+        .toString();
+  }
+
+  /**
+   * Wait until any pause has elapsed and a rate-limit permit is available.
+   */
+  public void acquire() throws InterruptedException {
+    long delay;
+    while ((delay = pausedUntil.get() - System.currentTimeMillis()) > 0) {
+      Thread.sleep(delay);
+    }
+    if (rateLimiter != null) {
+      rateLimiter.acquire();
+    }
+  }
+
+  /**
+   * Pause all requests for at least the given delay in milliseconds.
+   */
+  public void pause(final long delay) {
+    long until = System.currentTimeMillis() + delay;
+    while (true) {
+      long current = pausedUntil.get();
+      if (current >= until || pausedUntil.compareAndSet(current, until)) {
+        return;
+      }
+    }
+  }
+
+  /**
+   * Returns the delay in milliseconds before retrying a failed request; or {@literal -1} if it should not be retried.
+   *
+   * Honors {@code Retry-After} if given; otherwise exponential backoff with full jitter.
+   *
+   * @param attempt zero-based number of the failed attempt.
+   */
+  public long retryDelay(final int attempt, final StatusException failure) {
+    int status = failure.getStatus();
+    if ((status != TOO_MANY_REQUESTS && status != SERVICE_UNAVAILABLE) || attempt >= configuration.getMaxRetries()) {
+      return -1;
+    }
+
+    long delay = failure.getRetryAfter();
+    if (delay < 0) {
+      long backoff = configuration.getInitialBackoff() << Math.min(attempt, 30);
+      long ceiling = Math.min(configuration.getMaxBackoff(), backoff);
+      delay = ThreadLocalRandom.current().nextLong(Math.max(ceiling, 0) + 1);
+    }
+    return Math.min(delay, configuration.getMaxBackoff());
+  }
+}
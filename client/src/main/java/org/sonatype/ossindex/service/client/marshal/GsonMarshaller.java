@@ -15,20 +15,27 @@ package org.sonatype.ossindex.service.client.marshal;
 import java.io.IOException;
 import java.io.Reader;
 import java.io.Writer;
-import java.lang.reflect.Type;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
 
+import javax.annotation.Nullable;
+
+import org.sonatype.goodies.packageurl.InvalidException;
 import org.sonatype.goodies.packageurl.PackageUrl;
+import org.sonatype.ossindex.service.api.componentreport.ComponentReport;
+import org.sonatype.ossindex.service.api.componentreport.ComponentReportVulnerability;
+import org.sonatype.ossindex.service.client.util.PackageUrlInterner;
 
 import com.google.common.reflect.TypeToken;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
-import com.google.gson.JsonDeserializationContext;
-import com.google.gson.JsonDeserializer;
-import com.google.gson.JsonElement;
 import com.google.gson.JsonParseException;
-import com.google.gson.JsonPrimitive;
-import com.google.gson.JsonSerializationContext;
-import com.google.gson.JsonSerializer;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
@@ -45,6 +52,8 @@ public class GsonMarshaller
   public GsonMarshaller() {
     gson = new GsonBuilder()
         .registerTypeAdapter(PackageUrl.class, new PackageUrlAdapter())
+        .registerTypeAdapter(ComponentReport.class, new ComponentReportAdapter())
+        .registerTypeAdapter(ComponentReportVulnerability.class, new ComponentReportVulnerabilityAdapter())
         .create();
   }
 
@@ -119,22 +128,292 @@ public class GsonMarshaller
     }
   }
 
+  /**
+   * Reads elements one at a time from the underlying stream.
+   *
+   * @since 1.8.3
+   */
+  @Override
+  public <T> void unmarshalElements(final Reader reader, final Class<T> type, final ElementHandler<T> handler)
+      throws IOException
+  {
+    checkNotNull(reader);
+    checkNotNull(type);
+    checkNotNull(handler);
+    try {
+      TypeAdapter<T> adapter = gson.getAdapter(type);
+      JsonReader json = gson.newJsonReader(reader);
+      json.beginArray();
+      while (json.hasNext()) {
+        handler.handle(adapter.read(json));
+      }
+      json.endArray();
+    }
+    catch (JsonParseException | IllegalStateException e) {
+      throw new IOException(e);
+    }
+  }
+
   /**
    * {@link PackageUrl} adapter.
    */
   private static class PackageUrlAdapter
-      implements JsonDeserializer<PackageUrl>, JsonSerializer<PackageUrl>
+      extends TypeAdapter<PackageUrl>
   {
     @Override
-    public PackageUrl deserialize(final JsonElement element, final Type type, final JsonDeserializationContext context)
-        throws JsonParseException
-    {
-      return PackageUrl.parse(element.getAsString());
+    public void write(final JsonWriter out, @Nullable final PackageUrl value) throws IOException {
+      if (value == null) {
+        out.nullValue();
+      }
+      else {
+        out.value(PackageUrlInterner.render(value));
+      }
     }
 
+    @Nullable
     @Override
-    public JsonElement serialize(final PackageUrl value, final Type type, final JsonSerializationContext context) {
-      return new JsonPrimitive(value.toString());
+    public PackageUrl read(final JsonReader in) throws IOException {
+      return readCoordinates(in);
+    }
+  }
+
+  /**
+   * {@link ComponentReport} adapter; binds fields directly instead of by reflection.
+   */
+  private static class ComponentReportAdapter
+      extends TypeAdapter<ComponentReport>
+  {
+    private final ComponentReportVulnerabilityAdapter vulnerabilityAdapter = new ComponentReportVulnerabilityAdapter();
+
+    @Override
+    public void write(final JsonWriter out, @Nullable final ComponentReport value) throws IOException {
+      if (value == null) {
+        out.nullValue();
+        return;
+      }
+      out.beginObject();
+      if (value.getCoordinates() != null) {
+        out.name("coordinates").value(PackageUrlInterner.render(value.getCoordinates()));
+      }
+      writeString(out, "description", value.getDescription());
+      writeUri(out, "reference", value.getReference());
+      out.name("vulnerabilities").beginArray();
+      for (ComponentReportVulnerability vulnerability : value.getVulnerabilities()) {
+        vulnerabilityAdapter.write(out, vulnerability);
+      }
+      out.endArray();
+      out.name("sonatypeOssiScore").value(value.getSonatypeOssiScore());
+      out.endObject();
+    }
+
+    @Nullable
+    @Override
+    public ComponentReport read(final JsonReader in) throws IOException {
+      if (in.peek() == JsonToken.NULL) {
+        in.nextNull();
+        return null;
+      }
+      ComponentReport report = new ComponentReport();
+      in.beginObject();
+      while (in.hasNext()) {
+        String name = in.nextName();
+        if (in.peek() == JsonToken.NULL) {
+          in.nextNull();
+          continue;
+        }
+        switch (name) {
+          case "coordinates":
+            report.setCoordinates(readCoordinates(in));
+            break;
+          case "description":
+            report.setDescription(in.nextString());
+            break;
+          case "reference":
+            report.setReference(readUri(in));
+            break;
+          case "vulnerabilities": {
+            List<ComponentReportVulnerability> vulnerabilities = new ArrayList<>();
+            in.beginArray();
+            while (in.hasNext()) {
+              vulnerabilities.add(vulnerabilityAdapter.read(in));
+            }
+            in.endArray();
+            report.setVulnerabilities(vulnerabilities);
+            break;
+          }
+          case "sonatypeOssiScore":
+            report.setSonatypeOssiScore((float) in.nextDouble());
+            break;
+          default:
+            in.skipValue();
+        }
+      }
+      in.endObject();
+      return report;
+    }
+  }
+
+  /**
+   * {@link ComponentReportVulnerability} adapter; binds fields directly instead of by reflection.
+   */
+  private static class ComponentReportVulnerabilityAdapter
+      extends TypeAdapter<ComponentReportVulnerability>
+  {
+    @Override
+    public void write(final JsonWriter out, @Nullable final ComponentReportVulnerability value) throws IOException {
+      if (value == null) {
+        out.nullValue();
+        return;
+      }
+      out.beginObject();
+      writeString(out, "id", value.getId());
+      writeString(out, "displayName", value.getDisplayName());
+      writeString(out, "title", value.getTitle());
+      writeString(out, "description", value.getDescription());
+      if (value.getCvssScore() != null) {
+        out.name("cvssScore").value(value.getCvssScore());
+      }
+      writeString(out, "cvssVector", value.getCvssVector());
+      writeString(out, "cwe", value.getCwe());
+      writeString(out, "cve", value.getCve());
+      writeUri(out, "reference", value.getReference());
+      if (value.getVersionRanges() != null) {
+        out.name("versionRanges").beginArray();
+        for (String versionRange : value.getVersionRanges()) {
+          out.value(versionRange);
+        }
+        out.endArray();
+      }
+      out.name("externalReferences").beginArray();
+      for (URI externalReference : value.getExternalReferences()) {
+        out.value(externalReference != null ? externalReference.toString() : null);
+      }
+      out.endArray();
+      out.endObject();
+    }
+
+    @Nullable
+    @Override
+    public ComponentReportVulnerability read(final JsonReader in) throws IOException {
+      if (in.peek() == JsonToken.NULL) {
+        in.nextNull();
+        return null;
+      }
+      ComponentReportVulnerability vulnerability = new ComponentReportVulnerability();
+      in.beginObject();
+      while (in.hasNext()) {
+        String name = in.nextName();
+        if (in.peek() == JsonToken.NULL) {
+          in.nextNull();
+          continue;
+        }
+        switch (name) {
+          case "id":
+            vulnerability.setId(in.nextString());
+            break;
+          case "displayName":
+            vulnerability.setDisplayName(in.nextString());
+            break;
+          case "title":
+            vulnerability.setTitle(in.nextString());
+            break;
+          case "description":
+            vulnerability.setDescription(in.nextString());
+            break;
+          case "cvssScore":
+            vulnerability.setCvssScore((float) in.nextDouble());
+            break;
+          case "cvssVector":
+            vulnerability.setCvssVector(in.nextString());
+            break;
+          case "cwe":
+            vulnerability.setCwe(in.nextString());
+            break;
+          case "cve":
+            vulnerability.setCve(in.nextString());
+            break;
+          case "reference":
+            vulnerability.setReference(readUri(in));
+            break;
+          case "versionRanges": {
+            List<String> versionRanges = new ArrayList<>();
+            in.beginArray();
+            while (in.hasNext()) {
+              versionRanges.add(readString(in));
+            }
+            in.endArray();
+            vulnerability.setVersionRanges(versionRanges);
+            break;
+          }
+          case "externalReferences": {
+            List<URI> externalReferences = new ArrayList<>();
+            in.beginArray();
+            while (in.hasNext()) {
+              externalReferences.add(readUri(in));
+            }
+            in.endArray();
+            vulnerability.setExternalReferences(externalReferences);
+            break;
+          }
+          default:
+            in.skipValue();
+        }
+      }
+      in.endObject();
+      return vulnerability;
+    }
+  }
+
+  private static void writeString(final JsonWriter out, final String name, @Nullable final String value)
+      throws IOException
+  {
+    if (value != null) {
+      out.name(name).value(value);
+    }
+  }
+
+  private static void writeUri(final JsonWriter out, final String name, @Nullable final URI value)
+      throws IOException
+  {
+    if (value != null) {
+      out.name(name).value(value.toString());
+    }
+  }
+
+  @Nullable
+  private static String readString(final JsonReader in) throws IOException {
+    if (in.peek() == JsonToken.NULL) {
+      in.nextNull();
+      return null;
+    }
+    return in.nextString();
+  }
+
+  @Nullable
+  private static URI readUri(final JsonReader in) throws IOException {
+    String value = readString(in);
+    if (value == null) {
+      return null;
+    }
+    try {
+      return URI.create(value);
+    }
+    catch (IllegalArgumentException e) {
+      throw new JsonSyntaxException(e);
+    }
+  }
+
+  @Nullable
+  private static PackageUrl readCoordinates(final JsonReader in) throws IOException {
+    String value = readString(in);
+    if (value == null) {
+      return null;
+    }
+    try {
+      return PackageUrlInterner.parse(value);
+    }
+    catch (InvalidException e) {
+      throw new JsonSyntaxException(e);
     }
   }
 }
@@ -15,7 +15,9 @@ package org.sonatype.ossindex.service.client.marshal;
 import java.io.IOException;
 import java.io.Reader;
 import java.io.Writer;
+import java.util.List;
 
+import com.google.common.reflect.TypeParameter;
 import com.google.common.reflect.TypeToken;
 
 /**
@@ -68,4 +70,31 @@ public interface Marshaller
    * @since 1.1.0
    */
   <T> T unmarshal(Reader reader, TypeToken<T> type) throws IOException;
+
+  /**
+   * Unmarshal array of values for element type; handing each element to given handler as it is read.
+   *
+   * The default implementation unmarshals the entire array before handing off elements.
+   *
+   * @since 1.8.3
+   */
+  @SuppressWarnings("UnstableApiUsage")
+  default <T> void unmarshalElements(final Reader reader, final Class<T> type, final ElementHandler<T> handler)
+      throws IOException
+  {
+    TypeToken<List<T>> listType = new TypeToken<List<T>>() { }.where(new TypeParameter<T>() { }, type);
+    for (T element : unmarshal(reader, listType)) {
+      handler.handle(element);
+    }
+  }
+
+  /**
+   * Handler of unmarshalled array elements.
+   *
+   * @since 1.8.3
+   */
+  interface ElementHandler<T>
+  {
+    void handle(T element) throws IOException;
+  }
 }
@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2018-present Sonatype, Inc. All rights reserved.
+ *
+ * This program is licensed to you under the Apache License Version 2.0,
+ * and you may not use this file except in compliance with the Apache License Version 2.0.
+ * You may obtain a copy of the Apache License Version 2.0 at http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the Apache License Version 2.0 is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Apache License Version 2.0 for the specific language governing permissions and limitations there under.
+ */
+package org.sonatype.ossindex.service.client.transport;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * HTTP content-compression configuration.
+ *
+ * @since 1.8.3
+ */
+public class CompressionConfiguration
+{
+  @JsonProperty
+  private boolean requests = false;
+
+  @JsonProperty
+  private boolean responses = true;
+
+  /**
+   * Returns true if request bodies are sent gzip encoded.
+   *
+   * Disabled by default; only enable when the server (or intermediate proxy) accepts {@code Content-Encoding: gzip}.
+   */
+  public boolean isRequests() {
+    return requests;
+  }
+
+  public void setRequests(final boolean requests) {
+    this.requests = requests;
+  }
+
+  /**
+   * Returns true if gzip and deflate encoded responses are accepted.
+   */
+  public boolean isResponses() {
+    return responses;
+  }
+
+  public void setResponses(final boolean responses) {
+    this.responses = responses;
+  }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2018-present Sonatype, Inc. All rights reserved.
+ *
+ * This program is licensed to you under the Apache License Version 2.0,
+ * and you may not use this file except in compliance with the Apache License Version 2.0.
+ * You may obtain a copy of the Apache License Version 2.0 at http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the Apache License Version 2.0 is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Apache License Version 2.0 for the specific language governing permissions and limitations there under.
+ */
+package org.sonatype.ossindex.service.client.transport;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Connection-pool configuration.
+ *
+ * Durations are in milliseconds; values less than or equal to zero disable the respective limit.
+ *
+ * @since 1.8.3
+ */
+public class ConnectionPoolConfiguration
+{
+  public static final int DEFAULT_MAX_PER_ROUTE = 10;
+
+  public static final int DEFAULT_MAX_TOTAL = 20;
+
+  public static final long DEFAULT_IDLE_TIMEOUT = 30 * 1000L;
+
+  @JsonProperty
+  private int maxPerRoute = DEFAULT_MAX_PER_ROUTE;
+
+  @JsonProperty
+  private int maxTotal = DEFAULT_MAX_TOTAL;
+
+  @JsonProperty
+  private long idleTimeout = DEFAULT_IDLE_TIMEOUT;
+
+  @JsonProperty
+  private long timeToLive = -1;
+
+  /**
+   * Returns the maximum number of connections per route.
+   */
+  public int getMaxPerRoute() {
+    return maxPerRoute;
+  }
+
+  public void setMaxPerRoute(final int maxPerRoute) {
+    this.maxPerRoute = maxPerRoute;
+  }
+
+  /**
+   * Returns the maximum number of connections in total.
+   */
+  public int getMaxTotal() {
+    return maxTotal;
+  }
+
+  public void setMaxTotal(final int maxTotal) {
+    this.maxTotal = maxTotal;
+  }
+
+  /**
+   * Returns the duration after which idle connections are evicted from the pool.
+   */
+  public long getIdleTimeout() {
+    return idleTimeout;
+  }
+
+  public void setIdleTimeout(final long idleTimeout) {
+    this.idleTimeout = idleTimeout;
+  }
+
+  /**
+   * Returns the maximum duration a connection is kept, regardless of activity.
+   */
+  public long getTimeToLive() {
+    return timeToLive;
+  }
+
+  public void setTimeToLive(final long timeToLive) {
+    this.timeToLive = timeToLive;
+  }
+}
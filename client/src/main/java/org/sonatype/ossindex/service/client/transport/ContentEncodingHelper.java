@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2018-present Sonatype, Inc. All rights reserved.
+ *
+ * This program is licensed to you under the Apache License Version 2.0,
+ * and you may not use this file except in compliance with the Apache License Version 2.0.
+ * You may obtain a copy of the Apache License Version 2.0 at http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the Apache License Version 2.0 is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Apache License Version 2.0 for the specific language governing permissions and limitations there under.
+ */
+package org.sonatype.ossindex.service.client.transport;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import javax.annotation.Nullable;
+
+import org.sonatype.ossindex.service.client.transport.Transport.PayloadWriter;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * HTTP content-encoding helper.
+ *
+ * @since 1.8.3
+ */
+public class ContentEncodingHelper
+{
+  public static final String GZIP = "gzip";
+
+  public static final String DEFLATE = "deflate";
+
+  /**
+   * Value for {@code Accept-Encoding} header; encodings supported by {@link #decode(String, InputStream)}.
+   */
+  public static final String ACCEPT_ENCODING = GZIP + ", " + DEFLATE;
+
+  private ContentEncodingHelper() {
+    // empty
+  }
+
+  /**
+   * Returns configured compression; or default if not configured.
+   */
+  public static CompressionConfiguration compression(@Nullable final CompressionConfiguration configuration) {
+    return configuration != null ? configuration : new CompressionConfiguration();
+  }
+
+  /**
+   * Wrap response stream to decode given {@code Content-Encoding}; decoding is streamed as the stream is read.
+   */
+  public static InputStream decode(@Nullable final String encoding, final InputStream input) throws IOException {
+    checkNotNull(input);
+    if (encoding == null) {
+      return input;
+    }
+    switch (encoding.trim().toLowerCase(Locale.ENGLISH)) {
+      case "":
+      case "identity":
+        return input;
+      case GZIP:
+      case "x-gzip":
+        return new GZIPInputStream(input);
+      case DEFLATE:
+        return new InflaterInputStream(input);
+      default:
+        throw new IOException("Unsupported content-encoding: " + encoding);
+    }
+  }
+
+  /**
+   * Wrap payload writer to gzip encode its output.
+   */
+  public static PayloadWriter gzip(final PayloadWriter payload) {
+    checkNotNull(payload);
+    return new PayloadWriter()
+    {
+      @Override
+      public void writeTo(final OutputStream output) throws IOException {
+        // finish, but do not close; the transport owns the underlying stream
+        GZIPOutputStream stream = new GZIPOutputStream(output);
+        payload.writeTo(stream);
+        stream.finish();
+      }
+
+      @Override
+      public String toString() {
+        return payload.toString();
+      }
+    };
+  }
+}
@@ -13,13 +13,19 @@
 package org.sonatype.ossindex.service.client.transport;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.net.HttpURLConnection;
 import java.net.URI;
+import java.util.concurrent.TimeUnit;
 
 import org.sonatype.ossindex.service.client.OssindexClientConfiguration;
 
 import com.google.common.base.Charsets;
+import com.google.common.io.CharStreams;
 import com.google.common.net.HttpHeaders;
+import org.apache.http.Header;
 import org.apache.http.HttpEntity;
 import org.apache.http.HttpHost;
 import org.apache.http.StatusLine;
@@ -29,17 +35,19 @@ import org.apache.http.client.CredentialsProvider;
 import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpPost;
+import org.apache.http.entity.ContentProducer;
 import org.apache.http.entity.ContentType;
-import org.apache.http.entity.StringEntity;
+import org.apache.http.entity.EntityTemplate;
 import org.apache.http.impl.client.BasicCredentialsProvider;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
 import org.apache.http.util.EntityUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
 
 /**
  * Apache {@link org.apache.http.client.HttpClient} transport.
@@ -55,6 +63,8 @@ public class HttpClientTransport
 
   private OssindexClientConfiguration configuration;
 
+  private volatile CloseableHttpClient httpClient;
+
   public HttpClientTransport(final UserAgentSupplier userAgent) {
     this.userAgent = checkNotNull(userAgent);
   }
@@ -62,11 +72,15 @@ public class HttpClientTransport
   @Override
   public void init(final OssindexClientConfiguration configuration) {
     this.configuration = checkNotNull(configuration);
+    this.httpClient = createClient();
   }
 
   @Override
   public void close() throws Exception {
-    // empty
+    if (httpClient != null) {
+      httpClient.close();
+      httpClient = null;
+    }
   }
 
   // TODO: check if we need to use httpclient.execute(request,context) form?
@@ -75,37 +89,88 @@ public class HttpClientTransport
   public String post(final URI url, final String payloadType, final String payload, final String acceptType)
       throws TransportException, IOException
   {
-    checkArgument(configuration != null);
+    return post(url, payloadType, new StringPayloadWriter(payload), acceptType, new ResponseFunction<String>()
+    {
+      @Override
+      public String apply(final InputStream input) throws IOException {
+        return CharStreams.toString(new InputStreamReader(input, Charsets.UTF_8));
+      }
+    });
+  }
+
+  /**
+   * @since 1.8.3
+   */
+  @Override
+  public <T> T post(final URI url,
+                    final String payloadType,
+                    final PayloadWriter payload,
+                    final String acceptType,
+                    final ResponseFunction<T> function)
+      throws TransportException, IOException
+  {
+    CloseableHttpClient httpClient = this.httpClient;
+    checkState(httpClient != null, "Not initialized");
 
     log.debug("POST {}; payload: {} ({}); accept: {}", url, payload, payloadType, acceptType);
 
-    try (CloseableHttpClient httpClient = createClient()) {
-      HttpPost request = new HttpPost(url.toURL().toExternalForm());
-      customize(request);
-      request.setHeader(HttpHeaders.ACCEPT, acceptType);
-      request.setEntity(new StringEntity(payload, ContentType.create(payloadType, Charsets.UTF_8)));
+    HttpPost request = new HttpPost(url.toURL().toExternalForm());
+    customize(request);
+    request.setHeader(HttpHeaders.ACCEPT, acceptType);
+    request.setEntity(createEntity(payloadType, payload,
+        ContentEncodingHelper.compression(configuration.getCompressionConfiguration())));
 
-      try (CloseableHttpResponse response = httpClient.execute(request)) {
-        StatusLine status = response.getStatusLine();
-        log.trace("Status: {}", status);
+    try (CloseableHttpResponse response = httpClient.execute(request)) {
+      StatusLine status = response.getStatusLine();
+      log.trace("Status: {}", status);
 
+      // always fully consume entity so the connection can be reused
+      HttpEntity entity = response.getEntity();
+      try {
         if (status.getStatusCode() == HttpURLConnection.HTTP_OK) {
-          HttpEntity entity = response.getEntity();
-          try {
-            return EntityUtils.toString(entity);
-          }
-          finally {
-            EntityUtils.consumeQuietly(entity);
+          try (InputStream input = entity.getContent()) {
+            return function.apply(input);
           }
         }
+      }
+      finally {
+        EntityUtils.consumeQuietly(entity);
+      }
+
+      Header retryAfter = response.getFirstHeader(HttpHeaders.RETRY_AFTER);
+      throw new StatusException(status.getStatusCode(),
+          RetryAfterHelper.parse(retryAfter != null ? retryAfter.getValue() : null));
+    }
+  }
 
-        throw new TransportException("Unexpected response; status: " + status);
+  /**
+   * Create request entity; written chunked directly from payload writer to the connection.
+   */
+  private static HttpEntity createEntity(final String payloadType,
+                                         final PayloadWriter payload,
+                                         final CompressionConfiguration compression)
+  {
+    final PayloadWriter writer = compression.isRequests() ? ContentEncodingHelper.gzip(payload) : payload;
+    EntityTemplate entity = new EntityTemplate(new ContentProducer()
+    {
+      @Override
+      public void writeTo(final OutputStream output) throws IOException {
+        writer.writeTo(output);
       }
+    });
+    entity.setContentType(ContentType.create(payloadType, Charsets.UTF_8).toString());
+    if (compression.isRequests()) {
+      entity.setContentEncoding(ContentEncodingHelper.GZIP);
     }
+    entity.setChunked(true);
+    return entity;
   }
 
   /**
    * Create customized client.
+   *
+   * Invoked once from {@link #init(OssindexClientConfiguration)}; the client and its connection-pool are shared by all
+   * requests until {@link #close()}.
    */
   protected CloseableHttpClient createClient() {
     HttpClientBuilder builder = HttpClientBuilder.create();
@@ -113,6 +178,31 @@ public class HttpClientTransport
     // disable support for cookies
     builder.disableCookieManagement();
 
+    // configure connection-pool
+    ConnectionPoolConfiguration poolConfiguration = configuration.getConnectionPoolConfiguration();
+    if (poolConfiguration == null) {
+      poolConfiguration = new ConnectionPoolConfiguration();
+    }
+    PoolingHttpClientConnectionManager connectionManager =
+        new PoolingHttpClientConnectionManager(poolConfiguration.getTimeToLive(), TimeUnit.MILLISECONDS);
+    connectionManager.setDefaultMaxPerRoute(poolConfiguration.getMaxPerRoute());
+    connectionManager.setMaxTotal(poolConfiguration.getMaxTotal());
+    builder.setConnectionManager(connectionManager);
+    builder.evictExpiredConnections();
+    if (poolConfiguration.getIdleTimeout() > 0) {
+      builder.evictIdleConnections(poolConfiguration.getIdleTimeout(), TimeUnit.MILLISECONDS);
+    }
+    log.debug("Configured connection-pool; max-per-route: {}, max-total: {}, idle-timeout: {}, time-to-live: {}",
+        poolConfiguration.getMaxPerRoute(), poolConfiguration.getMaxTotal(), poolConfiguration.getIdleTimeout(),
+        poolConfiguration.getTimeToLive());
+
+    // response decompression is streamed by the client when enabled; see ResponseContentEncoding
+    CompressionConfiguration compressionConfiguration =
+        ContentEncodingHelper.compression(configuration.getCompressionConfiguration());
+    if (!compressionConfiguration.isResponses()) {
+      builder.disableContentCompression();
+    }
+
     // prepare default credentials provider
     CredentialsProvider credentialsProvider = new BasicCredentialsProvider();
     builder.setDefaultCredentialsProvider(credentialsProvider);
@@ -12,12 +12,10 @@
  */
 package org.sonatype.ossindex.service.client.transport;
 
-import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.io.OutputStreamWriter;
-import java.io.Reader;
-import java.io.StringWriter;
+import java.io.OutputStream;
 import java.net.Authenticator;
 import java.net.HttpURLConnection;
 import java.net.InetSocketAddress;
@@ -32,6 +30,7 @@ import javax.annotation.Nullable;
 
 import org.sonatype.ossindex.service.client.OssindexClientConfiguration;
 
+import com.google.common.base.Charsets;
 import com.google.common.io.CharStreams;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -39,8 +38,11 @@ import org.slf4j.LoggerFactory;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.net.HttpHeaders.ACCEPT;
+import static com.google.common.net.HttpHeaders.ACCEPT_ENCODING;
 import static com.google.common.net.HttpHeaders.AUTHORIZATION;
+import static com.google.common.net.HttpHeaders.CONTENT_ENCODING;
 import static com.google.common.net.HttpHeaders.CONTENT_TYPE;
+import static com.google.common.net.HttpHeaders.RETRY_AFTER;
 import static com.google.common.net.HttpHeaders.USER_AGENT;
 import static java.net.HttpURLConnection.HTTP_OK;
 
@@ -75,6 +77,26 @@ public class HttpUrlConnectionTransport
   @Override
   public String post(final URI url, final String payloadType, final String payload, final String acceptType)
       throws TransportException, IOException
+  {
+    return post(url, payloadType, new StringPayloadWriter(payload), acceptType, new ResponseFunction<String>()
+    {
+      @Override
+      public String apply(final InputStream input) throws IOException {
+        return CharStreams.toString(new InputStreamReader(input, Charsets.UTF_8));
+      }
+    });
+  }
+
+  /**
+   * @since 1.8.3
+   */
+  @Override
+  public <T> T post(final URI url,
+                    final String payloadType,
+                    final PayloadWriter payload,
+                    final String acceptType,
+                    final ResponseFunction<T> function)
+      throws TransportException, IOException
   {
     log.debug("POST {}; payload: {} ({}); accept: {}", url, payload, payloadType, acceptType);
 
@@ -86,9 +108,26 @@ public class HttpUrlConnectionTransport
     connection.setRequestProperty(CONTENT_TYPE, payloadType);
     connection.setRequestProperty(ACCEPT, acceptType);
 
+    CompressionConfiguration compression =
+        ContentEncodingHelper.compression(configuration.getCompressionConfiguration());
+    if (compression.isResponses()) {
+      connection.setRequestProperty(ACCEPT_ENCODING, ContentEncodingHelper.ACCEPT_ENCODING);
+    }
+    PayloadWriter writer = payload;
+    if (compression.isRequests()) {
+      connection.setRequestProperty(CONTENT_ENCODING, ContentEncodingHelper.GZIP);
+      writer = ContentEncodingHelper.gzip(payload);
+    }
+
+    // stream payload without buffering; proxy authentication needs a buffered body to replay the request on 407
+    ProxyConfiguration proxyConfiguration = configuration.getProxyConfiguration();
+    if (proxyConfiguration == null || proxyConfiguration.getAuthConfiguration() == null) {
+      connection.setChunkedStreamingMode(0);
+    }
+
     log.debug("Connecting to: {}", url);
-    try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(connection.getOutputStream()))) {
-      writer.write(payload);
+    try (OutputStream output = connection.getOutputStream()) {
+      writer.writeTo(output);
     }
     connection.connect();
 
@@ -96,14 +135,13 @@ public class HttpUrlConnectionTransport
     log.trace("Status: {}", status);
 
     if (status == HTTP_OK) {
-      try (Reader reader = new InputStreamReader(connection.getInputStream())) {
-        StringWriter buff = new StringWriter();
-        CharStreams.copy(reader, buff);
-        return buff.toString();
+      try (InputStream stream = connection.getInputStream();
+           InputStream input = ContentEncodingHelper.decode(connection.getContentEncoding(), stream)) {
+        return function.apply(input);
       }
     }
 
-    throw new TransportException("Unexpected response; status: " + status);
+    throw new StatusException(status, RetryAfterHelper.parse(connection.getHeaderField(RETRY_AFTER)));
   }
 
   /**
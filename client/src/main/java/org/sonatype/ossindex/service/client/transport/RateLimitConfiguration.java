@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2018-present Sonatype, Inc. All rights reserved.
+ *
+ * This program is licensed to you under the Apache License Version 2.0,
+ * and you may not use this file except in compliance with the Apache License Version 2.0.
+ * You may obtain a copy of the Apache License Version 2.0 at http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the Apache License Version 2.0 is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Apache License Version 2.0 for the specific language governing permissions and limitations there under.
+ */
+package org.sonatype.ossindex.service.client.transport;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Rate-limit and retry configuration.
+ *
+ * Durations are in milliseconds.
+ *
+ * @since 1.8.3
+ */
+public class RateLimitConfiguration
+{
+  public static final int DEFAULT_MAX_RETRIES = 3;
+
+  public static final long DEFAULT_INITIAL_BACKOFF = 1000L;
+
+  public static final long DEFAULT_MAX_BACKOFF = 60 * 1000L;
+
+  @JsonProperty
+  private double requestsPerSecond = -1;
+
+  @JsonProperty
+  private int maxRetries = DEFAULT_MAX_RETRIES;
+
+  @JsonProperty
+  private long initialBackoff = DEFAULT_INITIAL_BACKOFF;
+
+  @JsonProperty
+  private long maxBackoff = DEFAULT_MAX_BACKOFF;
+
+  /**
+   * Returns the maximum rate of requests per second; or less than or equal to zero for unlimited.
+   */
+  public double getRequestsPerSecond() {
+    return requestsPerSecond;
+  }
+
+  public void setRequestsPerSecond(final double requestsPerSecond) {
+    this.requestsPerSecond = requestsPerSecond;
+  }
+
+  /**
+   * Returns the maximum number of times a throttled request is retried; zero to disable retries.
+   */
+  public int getMaxRetries() {
+    return maxRetries;
+  }
+
+  public void setMaxRetries(final int maxRetries) {
+    this.maxRetries = maxRetries;
+  }
+
+  /**
+   * Returns the upper bound of the first backoff delay; doubled on each further retry.
+   */
+  public long getInitialBackoff() {
+    return initialBackoff;
+  }
+
+  public void setInitialBackoff(final long initialBackoff) {
+    this.initialBackoff = initialBackoff;
+  }
+
+  /**
+   * Returns the upper bound of any backoff delay, including delays requested via {@code Retry-After}.
+   */
+  public long getMaxBackoff() {
+    return maxBackoff;
+  }
+
+  public void setMaxBackoff(final long maxBackoff) {
+    this.maxBackoff = maxBackoff;
+  }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2018-present Sonatype, Inc. All rights reserved.
+ *
+ * This program is licensed to you under the Apache License Version 2.0,
+ * and you may not use this file except in compliance with the Apache License Version 2.0.
+ * You may obtain a copy of the Apache License Version 2.0 at http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the Apache License Version 2.0 is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Apache License Version 2.0 for the specific language governing permissions and limitations there under.
+ */
+package org.sonatype.ossindex.service.client.transport;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+
+import javax.annotation.Nullable;
+
+/**
+ * {@code Retry-After} header helper.
+ *
+ * @since 1.8.3
+ */
+public class RetryAfterHelper
+{
+  private static final String HTTP_DATE_PATTERN = "EEE, dd MMM yyyy HH:mm:ss zzz";
+
+  private RetryAfterHelper() {
+    // empty
+  }
+
+  /**
+   * Parse {@code Retry-After} value; either delay-seconds or HTTP-date.
+   *
+   * @return delay in milliseconds; or {@literal -1} if missing or invalid.
+   */
+  public static long parse(@Nullable final String value) {
+    if (value == null) {
+      return -1;
+    }
+    String trimmed = value.trim();
+    if (trimmed.isEmpty()) {
+      return -1;
+    }
+
+    try {
+      long seconds = Long.parseLong(trimmed);
+      return seconds >= 0 ? seconds * 1000 : -1;
+    }
+    catch (NumberFormatException e) {
+      // maybe HTTP-date
+    }
+
+    // SimpleDateFormat is not thread-safe; create per call
+    SimpleDateFormat format = new SimpleDateFormat(HTTP_DATE_PATTERN, Locale.US);
+    format.setTimeZone(TimeZone.getTimeZone("GMT"));
+    try {
+      Date date = format.parse(trimmed);
+      return Math.max(0, date.getTime() - System.currentTimeMillis());
+    }
+    catch (ParseException e) {
+      return -1;
+    }
+  }
+}
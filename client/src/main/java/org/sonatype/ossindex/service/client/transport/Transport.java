@@ -12,11 +12,19 @@
  */
 package org.sonatype.ossindex.service.client.transport;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.URI;
 
 import org.sonatype.ossindex.service.client.OssindexClientConfiguration;
 
+import com.google.common.base.Charsets;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
 /**
  * Transport abstraction.
  *
@@ -35,6 +43,75 @@ public interface Transport
    */
   String post(URI url, String payloadType, String payload, String acceptType) throws TransportException, IOException;
 
+  /**
+   * Perform HTTP POST request; writing the request body from given writer as it is sent and handing the response body
+   * to given function as it is received.
+   *
+   * Both streams are only valid for the duration of the respective callback, and are closed by the transport.
+   * The default implementation buffers both through {@link #post(URI, String, String, String)}.
+   *
+   * @since 1.8.3
+   */
+  default <T> T post(final URI url,
+                     final String payloadType,
+                     final PayloadWriter payload,
+                     final String acceptType,
+                     final ResponseFunction<T> function)
+      throws TransportException, IOException
+  {
+    ByteArrayOutputStream buff = new ByteArrayOutputStream();
+    payload.writeTo(buff);
+    String response = post(url, payloadType, new String(buff.toByteArray(), Charsets.UTF_8), acceptType);
+    return function.apply(new ByteArrayInputStream(response.getBytes(Charsets.UTF_8)));
+  }
+
+  /**
+   * Writer of request body; encoded as UTF-8.
+   *
+   * May be invoked more than once, if the transport needs to repeat the request.
+   *
+   * @since 1.8.3
+   */
+  interface PayloadWriter
+  {
+    void writeTo(OutputStream output) throws IOException;
+  }
+
+  /**
+   * {@link PayloadWriter} for a string value.
+   *
+   * @since 1.8.3
+   */
+  class StringPayloadWriter
+      implements PayloadWriter
+  {
+    private final String value;
+
+    public StringPayloadWriter(final String value) {
+      this.value = checkNotNull(value);
+    }
+
+    @Override
+    public void writeTo(final OutputStream output) throws IOException {
+      output.write(value.getBytes(Charsets.UTF_8));
+    }
+
+    @Override
+    public String toString() {
+      return value;
+    }
+  }
+
+  /**
+   * Function to consume response body.
+   *
+   * @since 1.8.3
+   */
+  interface ResponseFunction<T>
+  {
+    T apply(InputStream input) throws IOException;
+  }
+
   /**
    * Thrown in case of non-{@link IOException} failure.
    */
@@ -57,4 +134,43 @@ public interface Transport
       super(cause);
     }
   }
+
+  /**
+   * Thrown when the server responds with an unexpected HTTP status.
+   *
+   * @since 1.8.3
+   */
+  class StatusException
+      extends TransportException
+  {
+    private static final long serialVersionUID = 1L;
+
+    private final int status;
+
+    private final long retryAfter;
+
+    public StatusException(final int status, final long retryAfter) {
+      super("Unexpected response; status: " + status);
+      this.status = status;
+      this.retryAfter = retryAfter;
+    }
+
+    public StatusException(final int status) {
+      this(status, -1);
+    }
+
+    /**
+     * Returns the HTTP status code.
+     */
+    public int getStatus() {
+      return status;
+    }
+
+    /**
+     * Returns the delay in milliseconds requested by the server via {@code Retry-After}; or {@literal -1} if none.
+     */
+    public long getRetryAfter() {
+      return retryAfter;
+    }
+  }
 }
@@ -15,8 +15,11 @@ package org.sonatype.ossindex.service.client.util;
 import java.io.IOException;
 import java.io.RandomAccessFile;
 import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
 import java.nio.file.Path;
 
+import javax.annotation.Nullable;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -33,7 +36,7 @@ public class FileLocker
 
   private static final String READ_MODE = "r";
 
-  private static final String WRITE_MODE = "rws";
+  private static final String WRITE_MODE = "rw";
 
   /**
    * Function to access file while under lock.
@@ -87,4 +90,47 @@ public class FileLocker
   public static <T> T writeLock(final Path path, final FileFunction<T> function) throws IOException {
     return lock(path, false, function);
   }
+
+  /**
+   * Apply function to given path if the lock is available without waiting.
+   *
+   * Path must already exist.
+   *
+   * @return function result; or {@literal null} if the lock is held elsewhere.
+   * @since 1.8.3
+   */
+  @Nullable
+  public static <T> T tryLock(final Path path, final boolean shared, final FileFunction<T> function)
+      throws IOException
+  {
+    checkNotNull(path);
+    checkNotNull(function);
+
+    String mode = shared ? READ_MODE : WRITE_MODE;
+    log.trace("Try locking: {}; mode: {}", path, mode);
+    try (RandomAccessFile file = new RandomAccessFile(path.toFile(), mode)) {
+      FileLock lock;
+      try {
+        lock = file.getChannel().tryLock(0L, Long.MAX_VALUE, shared);
+      }
+      catch (OverlappingFileLockException e) {
+        // held by this process
+        lock = null;
+      }
+      if (lock == null) {
+        log.trace("Locked elsewhere: {}", path);
+        return null;
+      }
+      try {
+        log.trace("Locked: {}", path);
+        return function.apply(file);
+      }
+      finally {
+        if (lock.isValid()) {
+          lock.release();
+          log.trace("Unlocked: {}", path);
+        }
+      }
+    }
+  }
 }
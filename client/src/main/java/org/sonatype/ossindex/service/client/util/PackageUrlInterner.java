@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2018-present Sonatype, Inc. All rights reserved.
+ *
+ * This program is licensed to you under the Apache License Version 2.0,
+ * and you may not use this file except in compliance with the Apache License Version 2.0.
+ * You may obtain a copy of the Apache License Version 2.0 at http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the Apache License Version 2.0 is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Apache License Version 2.0 for the specific language governing permissions and limitations there under.
+ */
+package org.sonatype.ossindex.service.client.util;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import org.sonatype.goodies.packageurl.PackageUrl;
+import org.sonatype.goodies.packageurl.RenderFlavor;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Bounded cache of parsed and rendered {@link PackageUrl} values.
+ *
+ * The same coordinates are parsed from every response and cache read, and rendered for every request and cache key.
+ * Parsing returns a shared instance per string; rendering looks up instances by identity, so rendering a shared
+ * instance is free after first use.  Rendered values are cached per {@link RenderFlavor}, as the default flavor may
+ * change at any time.
+ *
+ * @since 1.8.3
+ */
+public class PackageUrlInterner
+{
+  /**
+   * Maximum number of values retained in each direction.
+   */
+  private static final int MAXIMUM_SIZE = 16 * 1024;
+
+  private static final Cache<String, PackageUrl> parsed = CacheBuilder.newBuilder()
+      .maximumSize(MAXIMUM_SIZE)
+      .build();
+
+  /**
+   * Weak keys compare by identity.
+   */
+  private static final Map<RenderFlavor, Cache<PackageUrl, String>> rendered = new EnumMap<>(RenderFlavor.class);
+
+  static {
+    for (RenderFlavor flavor : RenderFlavor.values()) {
+      rendered.put(flavor, CacheBuilder.newBuilder()
+          .weakKeys()
+          .maximumSize(MAXIMUM_SIZE)
+          .<PackageUrl, String>build());
+    }
+  }
+
+  private PackageUrlInterner() {
+    // empty
+  }
+
+  /**
+   * Parse given value; returning the shared instance if recently parsed.
+   *
+   * @see PackageUrl#parse(String)
+   */
+  public static PackageUrl parse(final String value) {
+    checkNotNull(value);
+    PackageUrl purl = parsed.getIfPresent(value);
+    if (purl == null) {
+      purl = PackageUrl.parse(value);
+      parsed.put(value, purl);
+    }
+    return purl;
+  }
+
+  /**
+   * Render canonical string of given value in the default flavor.
+   *
+   * @see PackageUrl#toString()
+   */
+  public static String render(final PackageUrl value) {
+    return render(value, RenderFlavor.getDefault());
+  }
+
+  /**
+   * Render canonical string of given value in given flavor.
+   *
+   * @see PackageUrl#toString(RenderFlavor)
+   */
+  public static String render(final PackageUrl value, final RenderFlavor flavor) {
+    checkNotNull(value);
+    checkNotNull(flavor);
+    Cache<PackageUrl, String> cache = rendered.get(flavor);
+    String result = cache.getIfPresent(value);
+    if (result == null) {
+      result = value.toString(flavor);
+      cache.put(value, result);
+    }
+    return result;
+  }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2018-present Sonatype, Inc. All rights reserved.
+ *
+ * This program is licensed to you under the Apache License Version 2.0,
+ * and you may not use this file except in compliance with the Apache License Version 2.0.
+ * You may obtain a copy of the Apache License Version 2.0 at http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the Apache License Version 2.0 is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Apache License Version 2.0 for the specific language governing permissions and limitations there under.
+ */
+package org.sonatype.ossindex.service.client.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Striped counter.
+ *
+ * Spreads updates from different threads over padded cells, so counting on hot paths does not contend on a single
+ * cache-line; reading sums all cells.
+ *
+ * @since 1.8.3
+ */
+public class StripedCounter
+{
+  /**
+   * Cell stride in longs; one cache-line.
+   */
+  private static final int PADDING = 8;
+
+  private final AtomicLongArray cells;
+
+  private final int mask;
+
+  public StripedCounter() {
+    int processors = Runtime.getRuntime().availableProcessors();
+    int stripes = processors <= 1 ? 1 : Integer.highestOneBit(processors - 1) << 1;
+    this.cells = new AtomicLongArray(stripes * PADDING);
+    this.mask = stripes - 1;
+  }
+
+  public void add(final long value) {
+    long id = Thread.currentThread().getId();
+    int stripe = (int) ((id * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+    cells.addAndGet(stripe * PADDING, value);
+  }
+
+  public void increment() {
+    add(1);
+  }
+
+  public long sum() {
+    long sum = 0;
+    for (int i = 0; i < cells.length(); i += PADDING) {
+      sum += cells.get(i);
+    }
+    return sum;
+  }
+
+  @Override
+  public String toString() {
+    return String.valueOf(sum());
+  }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2018-present Sonatype, Inc. All rights reserved.
+ *
+ * This program is licensed to you under the Apache License Version 2.0,
+ * and you may not use this file except in compliance with the Apache License Version 2.0.
+ * You may obtain a copy of the Apache License Version 2.0 at http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the Apache License Version 2.0 is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Apache License Version 2.0 for the specific language governing permissions and limitations there under.
+ */
+package org.sonatype.ossindex.service.client.cache
+
+import org.sonatype.goodies.packageurl.PackageUrl
+import org.sonatype.goodies.testsupport.TestSupport
+import org.sonatype.ossindex.service.api.componentreport.ComponentReport
+import org.sonatype.ossindex.service.api.componentreport.ComponentReportVulnerability
+import org.sonatype.ossindex.service.client.marshal.GsonMarshaller
+
+import org.junit.Before
+import org.junit.Test
+
+import static org.junit.Assert.fail
+
+/**
+ * Tests for {@link BinaryCacheCodec}.
+ */
+class BinaryCacheCodecTest
+    extends TestSupport
+{
+  private BinaryCacheCodec underTest
+
+  @Before
+  void setUp() {
+    underTest = new BinaryCacheCodec()
+  }
+
+  private static ComponentReport report(final int index) {
+    return new ComponentReport(
+        coordinates: PackageUrl.parse("pkg:mock/foo/bar@$index"),
+        description: "mock $index é",
+        reference: URI.create("http://ossindex.example.com/mock-$index"),
+        sonatypeOssiScore: 2.5,
+        vulnerabilities: [
+            new ComponentReportVulnerability(
+                id: "mock-$index",
+                title: "Mock $index",
+                cvssScore: 1.0,
+                cve: "CVE-2020-$index",
+                reference: URI.create("http://ossindex.example.com/vuln/mock-$index"),
+                versionRanges: ['[1,2)'],
+                externalReferences: [URI.create("http://example.com/$index")]
+            ),
+            new ComponentReportVulnerability(
+                id: "mock-$index-empty",
+                versionRanges: []
+            ),
+            new ComponentReportVulnerability(
+                id: "mock-$index-absent"
+            )
+        ]
+    )
+  }
+
+  private byte[] encode(final ComponentReport report) {
+    def output = new ByteArrayOutputStream()
+    underTest.encode(report, output)
+    return output.toByteArray()
+  }
+
+  @Test
+  void 'encode and decode report'() {
+    def report = report(1)
+    byte[] bytes = encode(report)
+    log "${bytes.length} bytes; JSON: ${new GsonMarshaller().marshal(report).length()} characters"
+
+    def result = underTest.decode(new ByteArrayInputStream(bytes))
+    assert result == report
+    assert result.vulnerabilities[1].versionRanges == []
+    assert result.vulnerabilities[2].versionRanges == null
+  }
+
+  @Test
+  void 'unknown fields are skipped'() {
+    byte[] bytes = encode(new ComponentReport(description: 'mock'))
+
+    // prepend unknown string and nested object fields
+    def output = new ByteArrayOutputStream()
+    output.write(bytes[0])
+    output.write([15 << 3 | 2, 3] as byte[])
+    output.write('abc'.bytes)
+    output.write([14 << 3 | 3, 1 << 3 | 1, 0, 0, 0, 0, 0] as byte[])
+    output.write(bytes, 1, bytes.length - 1)
+
+    def result = underTest.decode(new ByteArrayInputStream(output.toByteArray()))
+    assert result.description == 'mock'
+  }
+
+  @Test
+  void 'unsupported version fails'() {
+    byte[] bytes = encode(report(1))
+    bytes[0] = BinaryCacheCodec.VERSION + 1
+    try {
+      underTest.decode(new ByteArrayInputStream(bytes))
+      fail()
+    }
+    catch (IOException e) {
+      log e // expected
+    }
+  }
+}
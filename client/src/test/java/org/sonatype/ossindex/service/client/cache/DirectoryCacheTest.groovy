@@ -12,15 +12,23 @@
  */
 package org.sonatype.ossindex.service.client.cache
 
+import java.nio.file.attribute.PosixFileAttributeView
+import java.util.concurrent.Callable
+import java.util.concurrent.Executors
+
+import groovy.io.FileType
+
 import org.sonatype.goodies.packageurl.PackageUrl
 import org.sonatype.goodies.testsupport.TestSupport
 import org.sonatype.ossindex.service.api.componentreport.ComponentReport
 import org.sonatype.ossindex.service.api.componentreport.ComponentReportVulnerability
 import org.sonatype.ossindex.service.client.marshal.GsonMarshaller
 
+import com.google.common.hash.Hashing
 import com.google.common.io.Files
 import org.joda.time.Duration
 import org.junit.After
+import org.junit.Assume
 import org.junit.Before
 import org.junit.Test
 
@@ -105,4 +113,205 @@ class DirectoryCacheTest
 
     displayDirectoryTree(baseDir)
   }
+
+  @Test
+  void 'concurrent access'() {
+    def coordinates = (1..8).collect { PackageUrl.parse("pkg:mock/foo/bar@$it") }
+    def executor = Executors.newFixedThreadPool(8)
+    try {
+      def futures = (1..64).collect { i ->
+        executor.submit({
+          def purl = coordinates[i % coordinates.size()]
+          underTest.putAll([(purl): new ComponentReport(coordinates: purl, description: "mock $i")])
+          def report = underTest.getIfPresent(purl)
+          assert report != null
+          assert report.coordinates == purl
+        } as Callable<Void>)
+      }
+      futures.each { it.get() }
+    }
+    finally {
+      executor.shutdown()
+    }
+  }
+
+  @Test
+  void 'get all present in bulk'() {
+    def coordinates = (1..20).collect { PackageUrl.parse("pkg:mock/foo/bar@$it") }
+    underTest.putAll(coordinates.findAll { it.version.toInteger() % 2 == 0 }.collectEntries {
+      [(it): new ComponentReport(coordinates: it, description: 'mock')]
+    })
+
+    def reports = underTest.getAllPresent(coordinates)
+    assert reports.size() == 10
+    assert reports.keySet().every { it.version.toInteger() % 2 == 0 }
+  }
+
+  @Test
+  void 'replace entry leaves no temporary files'() {
+    def coordinates = PackageUrl.parse('pkg:mock/foo/bar@baz')
+    underTest.putAll([(coordinates): new ComponentReport(coordinates: coordinates, description: 'a much longer description')])
+    underTest.putAll([(coordinates): new ComponentReport(coordinates: coordinates, description: 'short')])
+
+    underTest.getIfPresent(coordinates).with {
+      assert it.description == 'short'
+    }
+
+    def files = Files.fileTreeTraverser().breadthFirstTraversal(baseDir).filter { it.isFile() }.toList()
+    displayDirectoryTree(baseDir)
+    assert files.size() == 1
+    assert !files[0].name.endsWith('.tmp')
+  }
+
+  @Test
+  void 'entry has default file permissions'() {
+    def coordinates = PackageUrl.parse('pkg:mock/foo/bar@baz')
+    underTest.putAll([(coordinates): new ComponentReport(coordinates: coordinates, description: 'shared')])
+
+    def file = Files.fileTreeTraverser().breadthFirstTraversal(baseDir).filter { it.isFile() }.first().get()
+    def view = java.nio.file.Files.getFileAttributeView(file.toPath(), PosixFileAttributeView.class)
+    Assume.assumeNotNull(view)
+
+    // compare with a file created by umask default, rather than the owner-only permissions of temporary files
+    def expected = java.nio.file.Files.createFile(new File(file.parentFile, 'expected').toPath())
+    assert view.readAttributes().permissions() == java.nio.file.Files.getPosixFilePermissions(expected)
+  }
+
+  @Test
+  void 'sweep expires entries and evicts least recently accessed'() {
+    underTest.close()
+    underTest = new DirectoryCache(new GsonMarshaller(),
+        new DirectoryCache.Configuration(
+            baseDir: baseDir.toPath(),
+            expireAfter: Duration.standardHours(24),
+            maxEntries: 3
+        )
+    )
+
+    def coordinates = (1..5).collect { PackageUrl.parse("pkg:mock/foo/bar@$it") }
+    underTest.putAll(coordinates.collectEntries { [(it): new ComponentReport(coordinates: it)] })
+
+    def fileOf = { PackageUrl purl ->
+      def key = Hashing.sha1().hashUnencodedChars(purl.toString()).toString()
+      return new File(baseDir, "${key[0..1]}/${key[2..3]}/$key")
+    }
+    def hourAgo = System.currentTimeMillis() - Duration.standardHours(1).millis
+    coordinates.each { fileOf(it).setLastModified(hourAgo) }
+
+    // expired entry and abandoned temporary file
+    fileOf(coordinates[0]).setLastModified(System.currentTimeMillis() - Duration.standardDays(2).millis)
+    def temp = new File(fileOf(coordinates[1]).parentFile, 'abandoned.tmp')
+    temp.text = 'partial'
+    temp.setLastModified(hourAgo - 1000)
+
+    // recently accessed entries survive eviction
+    assert underTest.getIfPresent(coordinates[3]) != null
+    assert underTest.getIfPresent(coordinates[4]) != null
+
+    underTest.sweep()
+
+    assert !fileOf(coordinates[0]).exists()
+    assert !temp.exists()
+    assert coordinates.count { fileOf(it).exists() } == 3
+    assert fileOf(coordinates[3]).exists()
+    assert fileOf(coordinates[4]).exists()
+    assert underTest.stats().size == 3
+  }
+
+  @Test
+  void 'statistics track stored and deleted entries'() {
+    def coordinates = (1..3).collect { PackageUrl.parse("pkg:mock/foo/bar@$it") }
+    def bytes = { ->
+      long total = 0
+      baseDir.eachFileRecurse(FileType.FILES) { total += it.length() }
+      return total
+    }
+    underTest.putAll(coordinates.take(2).collectEntries { [(it): new ComponentReport(coordinates: it)] })
+    assert underTest.stats().size == 2
+
+    // maintained without walking the base-directory
+    underTest.putAll([(coordinates[2]): new ComponentReport(coordinates: coordinates[2])])
+    underTest.putAll([(coordinates[0]): new ComponentReport(coordinates: coordinates[0], description: 'replaced')])
+    underTest.purgeEntry(coordinates[1])
+    underTest.stats().with {
+      assert it.size == 2
+      assert it.bytes == bytes()
+    }
+  }
+
+  @Test
+  void 'compressed entry is readable either way'() {
+    def coordinates = PackageUrl.parse('pkg:mock/foo/bar@baz')
+    def report = new ComponentReport(coordinates: coordinates, description: 'mock ' * 200)
+    underTest.putAll([(coordinates): report])
+    def plainSize = Files.fileTreeTraverser().breadthFirstTraversal(baseDir).filter { it.isFile() }.first().get().length()
+
+    underTest.close()
+    underTest = new DirectoryCache(new GsonMarshaller(),
+        new DirectoryCache.Configuration(baseDir: baseDir.toPath(), compress: true)
+    )
+    assert underTest.getIfPresent(coordinates).description == report.description
+    underTest.putAll([(coordinates): report])
+    def compressedSize = Files.fileTreeTraverser().breadthFirstTraversal(baseDir).filter { it.isFile() }.first().get().length()
+    assert compressedSize < plainSize / 4
+    assert underTest.getIfPresent(coordinates).description == report.description
+
+    underTest.close()
+    underTest = new DirectoryCache(new GsonMarshaller(), new DirectoryCache.Configuration(baseDir: baseDir.toPath()))
+    assert underTest.getIfPresent(coordinates).description == report.description
+  }
+
+  @Test
+  void 'binary entry is readable either way'() {
+    def coordinates = PackageUrl.parse('pkg:mock/foo/bar@baz')
+    def report = new ComponentReport(
+        coordinates: coordinates,
+        description: 'mock 1',
+        vulnerabilities: [new ComponentReportVulnerability(id: 'mock-1', cvssScore: 1.0)]
+    )
+    underTest.putAll([(coordinates): report])
+
+    underTest.close()
+    underTest = new DirectoryCache(new GsonMarshaller(),
+        new DirectoryCache.Configuration(baseDir: baseDir.toPath(), format: CacheFormat.BINARY)
+    )
+    assert underTest.getIfPresent(coordinates) == report
+    underTest.putAll([(coordinates): report])
+    assert underTest.getIfPresent(coordinates) == report
+
+    underTest.close()
+    underTest = new DirectoryCache(new GsonMarshaller(), new DirectoryCache.Configuration(baseDir: baseDir.toPath()))
+    assert underTest.getIfPresent(coordinates) == report
+  }
+
+  @Test
+  void 'headerless entry is readable'() {
+    def coordinates = PackageUrl.parse('pkg:mock/foo/bar@legacy')
+    def key = Hashing.sha1().hashUnencodedChars(coordinates.toString()).toString()
+    def file = new File(baseDir, "${key[0..1]}/${key[2..3]}/$key")
+    file.parentFile.mkdirs()
+    file.text = new GsonMarshaller().marshal(new ComponentReport(coordinates: coordinates, description: 'legacy'))
+
+    underTest.getIfPresent(coordinates).with {
+      assert it != null
+      assert it.description == 'legacy'
+    }
+
+    // expired via last-modified
+    file.lastModified = System.currentTimeMillis() - Duration.standardHours(25).millis
+    assert underTest.getIfPresent(coordinates) == null
+    assert !file.exists()
+  }
+
+  @Test
+  void 'corrupt entry is deleted'() {
+    def coordinates = PackageUrl.parse('pkg:mock/foo/bar@corrupt')
+    def key = Hashing.sha1().hashUnencodedChars(coordinates.toString()).toString()
+    def file = new File(baseDir, "${key[0..1]}/${key[2..3]}/$key")
+    file.parentFile.mkdirs()
+    file.text = 'not an entry'
+
+    assert underTest.getIfPresent(coordinates) == null
+    assert !file.exists()
+  }
 }
@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2018-present Sonatype, Inc. All rights reserved.
+ *
+ * This program is licensed to you under the Apache License Version 2.0,
+ * and you may not use this file except in compliance with the Apache License Version 2.0.
+ * You may obtain a copy of the Apache License Version 2.0 at http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the Apache License Version 2.0 is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Apache License Version 2.0 for the specific language governing permissions and limitations there under.
+ */
+package org.sonatype.ossindex.service.client.cache
+
+import org.sonatype.goodies.packageurl.PackageUrl
+import org.sonatype.goodies.testsupport.TestSupport
+import org.sonatype.ossindex.service.api.componentreport.ComponentReport
+import org.sonatype.ossindex.service.client.marshal.GsonMarshaller
+
+import org.joda.time.Duration
+import org.junit.After
+import org.junit.Before
+import org.junit.Test
+
+import static org.junit.Assert.fail
+
+/**
+ * {@link LogCache} tests.
+ */
+class LogCacheTest
+    extends TestSupport
+{
+  File baseDir
+
+  LogCache underTest
+
+  @Before
+  void setUp() {
+    baseDir = util.createTempDir('cache-')
+    underTest = open()
+  }
+
+  @After
+  void tearDown() {
+    underTest?.close()
+    underTest = null
+    baseDir = null
+  }
+
+  private LogCache open(final Map<String, Object> properties = [:]) {
+    def config = new LogCache.Configuration(
+        baseDir: baseDir.toPath(),
+        // compaction is triggered explicitly
+        compactionInterval: Duration.standardHours(1)
+    )
+    properties.each { key, value -> config[key] = value }
+    return new LogCache(new GsonMarshaller(), config)
+  }
+
+  private static ComponentReport report(final PackageUrl coordinates, final String description) {
+    return new ComponentReport(coordinates: coordinates, description: description)
+  }
+
+  @Test
+  void 'add entry and reopen'() {
+    def coordinates = PackageUrl.parse('pkg:mock/foo/bar@baz')
+    assert underTest.getIfPresent(coordinates) == null
+
+    underTest.putAll([(coordinates): report(coordinates, 'mock 1')])
+    assert underTest.getIfPresent(coordinates).description == 'mock 1'
+
+    underTest.putAll([(coordinates): report(coordinates, 'mock 2')])
+    assert underTest.getIfPresent(coordinates).description == 'mock 2'
+
+    underTest.close()
+    underTest = open()
+    assert underTest.getIfPresent(coordinates).description == 'mock 2'
+  }
+
+  @Test
+  void 'entries retain write-time'() {
+    def coordinates = PackageUrl.parse('pkg:mock/foo/bar@baz')
+    long before = System.currentTimeMillis()
+    underTest.putAll([(coordinates): report(coordinates, 'mock')])
+    long after = System.currentTimeMillis()
+
+    long writeTime = underTest.getEntryIfPresent(coordinates).writeTime
+    assert writeTime >= before && writeTime <= after
+
+    underTest.close()
+    underTest = open()
+    assert underTest.getEntryIfPresent(coordinates).writeTime == writeTime
+    assert underTest.getAllEntriesPresent([coordinates])[coordinates].writeTime == writeTime
+  }
+
+  @Test
+  void 'directory is locked while open'() {
+    try {
+      open()
+      fail()
+    }
+    catch (IOException e) {
+      log e // expected
+    }
+  }
+
+  @Test
+  void 'partially written tail is truncated'() {
+    def coordinates = PackageUrl.parse('pkg:mock/foo/bar@baz')
+    underTest.putAll([(coordinates): report(coordinates, 'mock 1')])
+    underTest.close()
+
+    def segment = baseDir.listFiles().find { it.name.endsWith('.log') }
+    long size = segment.length()
+    segment.append([1, 2, 3] as byte[])
+
+    underTest = open()
+    assert underTest.getIfPresent(coordinates).description == 'mock 1'
+    assert segment.length() == size
+  }
+
+  @Test
+  void 'compaction reclaims superseded entries'() {
+    underTest.close()
+    underTest = open(maxSegmentSize: 1024)
+
+    def coordinates = (1..10).collect { PackageUrl.parse("pkg:mock/foo/bar@$it") }
+    3.times { round ->
+      coordinates.each { underTest.putAll([(it): report(it, "mock $round")]) }
+    }
+    int before = underTest.segmentCount()
+    assert before > 1
+
+    underTest.compact()
+    log "Segments: $before -> ${underTest.segmentCount()}"
+    assert underTest.segmentCount() < before
+    coordinates.each {
+      assert underTest.getIfPresent(it).description == 'mock 2'
+    }
+
+    underTest.close()
+    underTest = open(maxSegmentSize: 1024)
+    coordinates.each {
+      assert underTest.getIfPresent(it).description == 'mock 2'
+    }
+  }
+
+  @Test
+  void 'expired entries are not returned'() {
+    underTest.close()
+    underTest = open(expireAfter: Duration.millis(50))
+
+    def coordinates = PackageUrl.parse('pkg:mock/foo/bar@baz')
+    underTest.putAll([(coordinates): report(coordinates, 'mock 1')])
+    assert underTest.getIfPresent(coordinates) != null
+
+    Thread.sleep(100)
+    assert underTest.getIfPresent(coordinates) == null
+  }
+}
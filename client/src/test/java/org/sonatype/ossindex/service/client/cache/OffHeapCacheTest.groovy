@@ -0,0 +1,206 @@
+/*
+ * Copyright (c) 2018-present Sonatype, Inc. All rights reserved.
+ *
+ * This program is licensed to you under the Apache License Version 2.0,
+ * and you may not use this file except in compliance with the Apache License Version 2.0.
+ * You may obtain a copy of the Apache License Version 2.0 at http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the Apache License Version 2.0 is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Apache License Version 2.0 for the specific language governing permissions and limitations there under.
+ */
+package org.sonatype.ossindex.service.client.cache
+
+import java.nio.ByteBuffer
+import java.nio.channels.FileChannel
+import java.nio.file.StandardOpenOption
+
+import org.sonatype.goodies.packageurl.PackageUrl
+import org.sonatype.goodies.testsupport.TestSupport
+import org.sonatype.ossindex.service.api.componentreport.ComponentReport
+import org.sonatype.ossindex.service.client.marshal.GsonMarshaller
+
+import org.joda.time.Duration
+import org.junit.After
+import org.junit.Test
+
+import static org.junit.Assert.fail
+
+/**
+ * {@link OffHeapCache} tests.
+ */
+class OffHeapCacheTest
+    extends TestSupport
+{
+  OffHeapCache underTest
+
+  @After
+  void tearDown() {
+    underTest?.close()
+    underTest = null
+  }
+
+  private static OffHeapCache open(final Map<String, Object> properties = [:]) {
+    def config = new OffHeapCache.Configuration(
+        maxEntries: 100,
+        dataSize: 64 * 1024
+    )
+    properties.each { key, value -> config[key] = value }
+    return new OffHeapCache(new GsonMarshaller(), config)
+  }
+
+  private static PackageUrl coordinates(final int index) {
+    return PackageUrl.parse("pkg:mock/foo/bar@$index")
+  }
+
+  private static ComponentReport report(final PackageUrl coordinates, final String description) {
+    return new ComponentReport(coordinates: coordinates, description: description)
+  }
+
+  @Test
+  void 'add and replace entry'() {
+    underTest = open()
+    def coordinates = coordinates(1)
+    assert underTest.getIfPresent(coordinates) == null
+
+    underTest.putAll([(coordinates): report(coordinates, 'mock 1')])
+    assert underTest.getIfPresent(coordinates).description == 'mock 1'
+
+    underTest.putAll([(coordinates): report(coordinates, 'mock 2')])
+    assert underTest.getIfPresent(coordinates).description == 'mock 2'
+    assert underTest.count() == 1
+  }
+
+  @Test
+  void 'add compressed entry'() {
+    underTest = open(compress: true)
+    def coordinates = coordinates(1)
+    underTest.putAll([(coordinates): report(coordinates, 'mock ' * 200)])
+    assert underTest.getIfPresent(coordinates).description == 'mock ' * 200
+  }
+
+  @Test
+  void 'file-backed entries survive reopen'() {
+    def file = new File(util.createTempDir('cache-'), 'reports.bin').toPath()
+    underTest = open(file: file)
+    def coordinates = coordinates(1)
+    underTest.putAll([(coordinates): report(coordinates, 'mock')])
+
+    try {
+      open(file: file)
+      fail()
+    }
+    catch (IOException e) {
+      // expected
+    }
+
+    underTest.close()
+    underTest = open(file: file)
+    assert underTest.getIfPresent(coordinates).description == 'mock'
+
+    // incompatible layout discards content
+    underTest.close()
+    underTest = open(file: file, maxEntries: 1000)
+    assert underTest.getIfPresent(coordinates) == null
+  }
+
+  @Test
+  void 'inconsistent entry count is repaired on reopen'() {
+    def file = new File(util.createTempDir('cache-'), 'reports.bin').toPath()
+    underTest = open(file: file, maxEntries: 2)
+    underTest.putAll([(coordinates(1)): report(coordinates(1), 'mock')])
+    underTest.close()
+
+    // count written, but slot not cleared
+    def channel = FileChannel.open(file, StandardOpenOption.WRITE)
+    try {
+      channel.write(ByteBuffer.allocate(4).putInt(0, 2), 24)
+    }
+    finally {
+      channel.close()
+    }
+
+    underTest = open(file: file, maxEntries: 2)
+    assert underTest.count() == 1
+    underTest.putAll([(coordinates(2)): report(coordinates(2), 'mock')])
+    assert underTest.count() == 2
+    assert underTest.getIfPresent(coordinates(1)) != null
+  }
+
+  @Test
+  void 'entries retain write-time'() {
+    def file = new File(util.createTempDir('cache-'), 'reports.bin').toPath()
+    underTest = open(file: file)
+    def coordinates = coordinates(1)
+    long before = System.currentTimeMillis()
+    underTest.putAll([(coordinates): report(coordinates, 'mock')])
+    long after = System.currentTimeMillis()
+
+    long writeTime = underTest.getEntryIfPresent(coordinates).writeTime
+    assert writeTime >= before && writeTime <= after
+
+    underTest.close()
+    underTest = open(file: file)
+    assert underTest.getEntryIfPresent(coordinates).writeTime == writeTime
+    assert underTest.getAllEntriesPresent([coordinates])[coordinates].writeTime == writeTime
+  }
+
+  @Test
+  void 'referenced entries survive eviction'() {
+    underTest = open(maxEntries: 10)
+    (1..10).each { underTest.putAll([(coordinates(it)): report(coordinates(it), 'mock')]) }
+    assert underTest.getIfPresent(coordinates(1)) != null
+
+    (11..15).each { underTest.putAll([(coordinates(it)): report(coordinates(it), 'mock')]) }
+    assert underTest.count() == 10
+    assert underTest.getIfPresent(coordinates(1)) != null
+    assert underTest.getIfPresent(coordinates(15)) != null
+  }
+
+  @Test
+  void 'log wraps around reclaiming regions'() {
+    underTest = open(maxEntries: 10000)
+    (1..2000).each {
+      underTest.putAll([(coordinates(it)): report(coordinates(it), 'x' * 100)])
+      // keep first entry referenced
+      assert underTest.getIfPresent(coordinates(1)) != null
+    }
+    assert underTest.count() < 2000
+    assert underTest.getIfPresent(coordinates(2000)).description == 'x' * 100
+    assert underTest.getIfPresent(coordinates(2)) == null
+  }
+
+  /**
+   * Report for which the record, including its header and coordinates, is exactly given length.
+   */
+  private static ComponentReport report(final PackageUrl coordinates, final int recordLength) {
+    def content = new ByteArrayOutputStream()
+    new JsonCacheCodec(new GsonMarshaller()).encode(report(coordinates, ''), content)
+    int overhead = 4 + 4 + 8 + 4 + coordinates.toString().getBytes('UTF-8').length + content.size()
+    return report(coordinates, 'x' * (recordLength - overhead))
+  }
+
+  @Test
+  void 'records filling regions exactly'() {
+    underTest = open(dataSize: 2048)
+    (1..6).each {
+      underTest.putAll([(coordinates(it)): report(coordinates(it), 1024)])
+      assert underTest.getIfPresent(coordinates(it)) != null
+      if (it > 1) {
+        // previous record must not have been overwritten by the next region
+        assert underTest.getIfPresent(coordinates(it - 1)).description == report(coordinates(it - 1), 1024).description
+      }
+    }
+    assert underTest.count() == 2
+  }
+
+  @Test
+  void 'expired entry is missing'() {
+    underTest = open(expireAfter: Duration.millis(1))
+    def coordinates = coordinates(1)
+    underTest.putAll([(coordinates): report(coordinates, 'mock')])
+    sleep(10)
+    assert underTest.getIfPresent(coordinates) == null
+  }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2018-present Sonatype, Inc. All rights reserved.
+ *
+ * This program is licensed to you under the Apache License Version 2.0,
+ * and you may not use this file except in compliance with the Apache License Version 2.0.
+ * You may obtain a copy of the Apache License Version 2.0 at http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the Apache License Version 2.0 is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Apache License Version 2.0 for the specific language governing permissions and limitations there under.
+ */
+package org.sonatype.ossindex.service.client.cache
+
+import org.sonatype.goodies.packageurl.PackageUrl
+import org.sonatype.goodies.testsupport.TestSupport
+import org.sonatype.ossindex.service.api.componentreport.ComponentReport
+import org.sonatype.ossindex.service.client.marshal.GsonMarshaller
+
+import org.joda.time.Duration
+import org.junit.After
+import org.junit.Before
+import org.junit.Test
+
+/**
+ * {@link TieredCache} tests.
+ */
+class TieredCacheTest
+    extends TestSupport
+{
+  MemoryCache first
+
+  File baseDir
+
+  DirectoryCache second
+
+  TieredCache underTest
+
+  @Before
+  void setUp() {
+    first = new MemoryCache(new MemoryCache.Configuration(spec: TieredCache.Configuration.DEFAULT_FIRST_SPEC))
+    baseDir = util.createTempDir('cache-')
+    second = new DirectoryCache(new GsonMarshaller(), new DirectoryCache.Configuration(baseDir: baseDir.toPath()))
+  }
+
+  @After
+  void tearDown() {
+    underTest?.close()
+    underTest = null
+  }
+
+  private static ComponentReport report(final PackageUrl coordinates) {
+    return new ComponentReport(coordinates: coordinates, description: 'mock')
+  }
+
+  @Test
+  void 'second-level entry is promoted'() {
+    underTest = new TieredCache(first, second, false)
+    def coordinates = PackageUrl.parse('pkg:mock/foo/bar@baz')
+    second.putAll([(coordinates): report(coordinates)])
+    assert first.getIfPresent(coordinates) == null
+
+    assert underTest.getIfPresent(coordinates).description == 'mock'
+    assert first.getIfPresent(coordinates).description == 'mock'
+  }
+
+  @Test
+  void 'promoted entry expires with second level'() {
+    second.close()
+    second = new DirectoryCache(new GsonMarshaller(),
+        new DirectoryCache.Configuration(baseDir: baseDir.toPath(), expireAfter: Duration.millis(500)))
+    underTest = new TieredCache(first, second, Duration.millis(500), false)
+    def coordinates = PackageUrl.parse('pkg:mock/foo/bar@baz')
+    second.putAll([(coordinates): report(coordinates)])
+
+    // promote almost expired entry
+    sleep(300)
+    assert underTest.getIfPresent(coordinates) != null
+    assert first.getIfPresent(coordinates) != null
+
+    sleep(300)
+    assert underTest.getIfPresent(coordinates) == null
+    assert underTest.getAllEntriesPresent([coordinates]).isEmpty()
+  }
+
+  @Test
+  void 'write-through to both levels'() {
+    underTest = new TieredCache(first, second, false)
+    def coordinates = PackageUrl.parse('pkg:mock/foo/bar@baz')
+    underTest.putAll([(coordinates): report(coordinates)])
+
+    assert first.getIfPresent(coordinates) != null
+    assert second.getIfPresent(coordinates) != null
+  }
+
+  @Test
+  void 'write-behind completes before close'() {
+    underTest = new TieredCache(first, second, true)
+    def entries = (1..50).collectEntries {
+      def coordinates = PackageUrl.parse("pkg:mock/foo/bar@$it")
+      [(coordinates): report(coordinates)]
+    }
+    underTest.putAll(entries)
+    entries.keySet().each { assert underTest.getIfPresent(it) != null }
+    underTest.close()
+
+    def reopened = new DirectoryCache(new GsonMarshaller(), new DirectoryCache.Configuration(baseDir: baseDir.toPath()))
+    entries.keySet().each { assert reopened.getIfPresent(it) != null }
+  }
+}
@@ -0,0 +1,439 @@
+/*
+ * Copyright (c) 2018-present Sonatype, Inc. All rights reserved.
+ *
+ * This program is licensed to you under the Apache License Version 2.0,
+ * and you may not use this file except in compliance with the Apache License Version 2.0.
+ * You may obtain a copy of the Apache License Version 2.0 at http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the Apache License Version 2.0 is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Apache License Version 2.0 for the specific language governing permissions and limitations there under.
+ */
+package org.sonatype.ossindex.service.client.internal
+
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.Executors
+import java.util.concurrent.atomic.AtomicInteger
+
+import org.sonatype.goodies.packageurl.PackageUrl
+import org.sonatype.goodies.testsupport.TestSupport
+import org.sonatype.ossindex.service.api.componentreport.ComponentReport
+import org.sonatype.ossindex.service.api.componentreport.ComponentReportRequest
+import org.sonatype.ossindex.service.client.OssindexClientConfiguration
+import org.sonatype.ossindex.service.client.RefreshAheadConfiguration
+import org.sonatype.ossindex.service.client.cache.Cache
+import org.sonatype.ossindex.service.client.cache.CacheConfiguration
+import org.sonatype.ossindex.service.client.cache.MemoryCache
+import org.sonatype.ossindex.service.client.marshal.GsonMarshaller
+import org.sonatype.ossindex.service.client.transport.RateLimitConfiguration
+import org.sonatype.ossindex.service.client.transport.Transport
+
+import org.junit.After
+import org.junit.Test
+
+import static org.junit.Assert.fail
+
+/**
+ * Tests for {@link OssindexClientImpl}.
+ */
+class OssindexClientImplTest
+    extends TestSupport
+{
+  /**
+   * Transport which answers every request with an empty report per coordinate.
+   */
+  static class MockTransport
+      implements Transport
+  {
+    final GsonMarshaller marshaller = new GsonMarshaller()
+
+    final AtomicInteger requests = new AtomicInteger()
+
+    final AtomicInteger coordinates = new AtomicInteger()
+
+    final AtomicInteger active = new AtomicInteger()
+
+    final AtomicInteger maxActive = new AtomicInteger()
+
+    final List<String> payloads = new CopyOnWriteArrayList<>()
+
+    long delay = 50
+
+    Closure<Void> failWhen = { ComponentReportRequest request -> null }
+
+    @Override
+    void init(final OssindexClientConfiguration configuration) {
+      // empty
+    }
+
+    @Override
+    String post(final URI url, final String payloadType, final String payload, final String acceptType) {
+      payloads << payload
+      def request = marshaller.unmarshal(payload, ComponentReportRequest.class)
+      requests.incrementAndGet()
+      coordinates.addAndGet(request.coordinates.size())
+      int current = active.incrementAndGet()
+      maxActive.accumulateAndGet(current, { a, b -> Math.max(a, b) })
+      try {
+        Thread.sleep(delay)
+        failWhen(request)
+        return marshaller.marshal(request.coordinates.collect { new ComponentReport(coordinates: it) })
+      }
+      finally {
+        active.decrementAndGet()
+      }
+    }
+
+    @Override
+    void close() {
+      // empty
+    }
+  }
+
+  MockTransport transport = new MockTransport()
+
+  OssindexClientImpl underTest
+
+  @After
+  void tearDown() {
+    underTest?.close()
+  }
+
+  private OssindexClientImpl createClient(final Map<String, Object> properties) {
+    def config = new OssindexClientConfiguration(cacheConfiguration: new MemoryCache.Configuration())
+    properties.each { key, value -> config[key] = value }
+    return new OssindexClientImpl(config, transport, new GsonMarshaller())
+  }
+
+  private static List<PackageUrl> coordinates(final int count) {
+    return (1..count).collect { PackageUrl.parse("pkg:mock/foo/bar@$it") }
+  }
+
+  @Test
+  void 'streamed request body matches marshalled request'() {
+    underTest = createClient([:])
+    def purls = coordinates(3)
+    underTest.requestComponentReports(purls)
+
+    assert transport.payloads == [new GsonMarshaller().marshal(new ComponentReportRequest(coordinates: purls))]
+  }
+
+  @Test
+  void 'batches are requested serially by default'() {
+    underTest = createClient(batchSize: 2)
+    def purls = coordinates(7)
+
+    def results = underTest.requestComponentReports(purls)
+    assert results.keySet().toList() == purls
+    assert transport.requests.get() == 4
+    assert transport.maxActive.get() == 1
+  }
+
+  @Test
+  void 'batches are requested concurrently'() {
+    underTest = createClient(batchSize: 2, maxConcurrentBatches: 3)
+    def purls = coordinates(20)
+
+    def results = underTest.requestComponentReports(purls)
+    log "Max active: ${transport.maxActive.get()}"
+    assert results.keySet().toList() == purls
+    results.each { purl, report -> assert report.coordinates == purl }
+    assert transport.requests.get() == 10
+    assert transport.maxActive.get() > 1
+    assert transport.maxActive.get() <= 3
+
+    // all results are cached
+    underTest.requestComponentReports(purls)
+    assert transport.requests.get() == 10
+  }
+
+  @Test
+  void 'statistics are recorded'() {
+    underTest = createClient(batchSize: 2)
+    def purls = coordinates(5)
+    underTest.requestComponentReports(purls)
+    underTest.requestComponentReports(purls)
+
+    def stats = underTest.stats()
+    log stats
+    assert stats.batchCount == 3
+    assert stats.coordinateCount == 5
+    assert stats.bytesSent > 0
+    assert stats.bytesReceived > 0
+    assert stats.latencyMedian <= stats.latencyMax
+    assert stats.cacheStats.hitCount == 5
+    assert stats.cacheStats.missCount >= 5
+  }
+
+  @Test
+  void 'stale reports are served while revalidating'() {
+    underTest = createClient(batchSize: 2, staleAfter: 0)
+    def purls = coordinates(2)
+    underTest.requestComponentReports(purls)
+    assert transport.requests.get() == 1
+    sleep(5)
+
+    def results = underTest.requestComponentReports(purls)
+    assert results.keySet().toList() == purls
+    for (int i = 0; i < 100 && transport.requests.get() < 2; i++) {
+      sleep(10)
+    }
+    assert transport.requests.get() == 2
+  }
+
+  @Test
+  void 'stale reports are used if request fails'() {
+    underTest = createClient(batchSize: 2, staleAfter: 0, staleWhileRevalidate: false)
+    def purls = coordinates(2)
+    underTest.requestComponentReports(purls)
+    sleep(5)
+
+    transport.failWhen = { ComponentReportRequest request ->
+      throw new Transport.TransportException('mock failure')
+    }
+    def results = underTest.requestComponentReports(purls)
+    assert results.keySet().toList() == purls
+    assert transport.requests.get() == 2
+  }
+
+  @Test
+  void 'frequently requested reports are refreshed ahead'() {
+    underTest = createClient(batchSize: 2, refreshAheadConfiguration: new RefreshAheadConfiguration(
+        refreshAfter: 0,
+        minAccessCount: 2,
+        interval: 20
+    ))
+    def purls = coordinates(3)
+    underTest.requestComponentReports(purls)
+    underTest.requestComponentReports(purls[0..1])
+
+    // only frequently requested reports are refreshed; and only once
+    for (int i = 0; i < 100 && transport.requests.get() < 3; i++) {
+      sleep(10)
+    }
+    sleep(100)
+    assert transport.requests.get() == 3
+    assert transport.coordinates.get() == 5
+  }
+
+  @Test
+  void 'failed refresh-ahead is retried'() {
+    underTest = createClient(refreshAheadConfiguration: new RefreshAheadConfiguration(
+        refreshAfter: 0,
+        minAccessCount: 2,
+        interval: 20
+    ))
+    def purl = coordinates(1)
+    underTest.requestComponentReports(purl)
+
+    def failures = new AtomicInteger()
+    transport.failWhen = { ComponentReportRequest request ->
+      if (failures.getAndIncrement() == 0) {
+        throw new Transport.TransportException('mock failure')
+      }
+    }
+    underTest.requestComponentReports(purl)
+
+    for (int i = 0; i < 100 && transport.requests.get() < 3; i++) {
+      sleep(10)
+    }
+    sleep(100)
+    assert failures.get() == 2
+    assert transport.requests.get() == 3
+  }
+
+  @Test
+  void 'report cache is closed when transport fails to initialize'() {
+    def closed = new AtomicInteger()
+    def cacheConfiguration = new CacheConfiguration() {
+      @Override
+      Cache create() {
+        return new MemoryCache(new MemoryCache.Configuration()) {
+          @Override
+          void close() {
+            closed.incrementAndGet()
+          }
+        }
+      }
+    }
+    transport = new MockTransport() {
+      @Override
+      void init(final OssindexClientConfiguration configuration) {
+        throw new IOException('mock failure')
+      }
+    }
+
+    try {
+      createClient(cacheConfiguration: cacheConfiguration, refreshAheadConfiguration: new RefreshAheadConfiguration())
+      fail()
+    }
+    catch (RuntimeException e) {
+      assert e.cause instanceof IOException
+    }
+    assert closed.get() == 1
+  }
+
+  @Test
+  void 'batches are bounded on supplied executor'() {
+    def executor = Executors.newCachedThreadPool()
+    try {
+      underTest = createClient(batchSize: 1, maxConcurrentBatches: 2, executor: executor)
+      def purls = coordinates(8)
+
+      def results = underTest.requestComponentReports(purls)
+      assert results.keySet().toList() == purls
+      assert transport.maxActive.get() == 2
+    }
+    finally {
+      executor.shutdown()
+    }
+  }
+
+  @Test
+  void 'batch failure is propagated'() {
+    underTest = createClient(batchSize: 1, maxConcurrentBatches: 2)
+    transport.failWhen = { ComponentReportRequest request ->
+      if (request.coordinates.contains(PackageUrl.parse('pkg:mock/foo/bar@3'))) {
+        throw new Transport.TransportException('mock failure')
+      }
+    }
+
+    try {
+      underTest.requestComponentReports(coordinates(4))
+      fail()
+    }
+    catch (Transport.TransportException e) {
+      log e // expected
+    }
+  }
+
+  @Test
+  void 'async request completes on client executor'() {
+    underTest = createClient(batchSize: 2)
+    def purls = coordinates(3)
+
+    def future = underTest.requestComponentReportsAsync(purls)
+    def results = future.get()
+    assert results.keySet().toList() == purls
+    assert transport.requests.get() == 2
+  }
+
+  @Test
+  void 'async request completes immediately when cached'() {
+    underTest = createClient(batchSize: 2)
+    def purl = PackageUrl.parse('pkg:mock/foo/bar@1')
+    underTest.requestComponentReport(purl)
+    assert transport.requests.get() == 1
+
+    def future = underTest.requestComponentReportAsync(purl)
+    assert future.isDone()
+    assert future.get().coordinates == purl
+    assert transport.requests.get() == 1
+  }
+
+  @Test
+  void 'concurrent requests for same coordinates are coalesced'() {
+    underTest = createClient(batchSize: 10, maxConcurrentBatches: 2)
+    transport.delay = 200
+    def purls = coordinates(6)
+
+    def first = underTest.requestComponentReportsAsync(purls.subList(0, 4))
+    def second = underTest.requestComponentReportsAsync(purls.subList(2, 6))
+
+    assert first.get().keySet().toList() == purls.subList(0, 4)
+    def results = second.get()
+    assert results.keySet().toList() == purls.subList(2, 6)
+    results.each { purl, report -> assert report.coordinates == purl }
+    assert transport.requests.get() == 2
+    assert transport.coordinates.get() == 6
+  }
+
+  @Test
+  void 'cancelled request does not cancel joined request'() {
+    underTest = createClient(batchSize: 2)
+    transport.delay = 200
+    def purls = coordinates(4)
+
+    def first = underTest.requestComponentReportsAsync(purls)
+    def second = underTest.requestComponentReportsAsync(purls.subList(1, 3))
+    assert first.cancel(true)
+
+    def results = second.get()
+    assert results.keySet().toList() == purls.subList(1, 3)
+    results.each { purl, report -> assert report.coordinates == purl }
+    assert transport.requests.get() == 2
+  }
+
+  @Test
+  void 'request is cancelled once no caller is waiting'() {
+    underTest = createClient(batchSize: 1)
+    transport.delay = 200
+    def purls = coordinates(3)
+
+    def first = underTest.requestComponentReportsAsync(purls)
+    def second = underTest.requestComponentReportsAsync(purls)
+    assert first.cancel(true)
+    assert second.cancel(true)
+
+    // first batch may be cancelled before it is sent; remaining batches never are
+    Thread.sleep(500)
+    assert transport.requests.get() <= 1
+  }
+
+  @Test
+  void 'throttled request is retried'() {
+    underTest = createClient(batchSize: 1, rateLimitConfiguration: new RateLimitConfiguration(initialBackoff: 10))
+    def throttled = new AtomicInteger()
+    transport.failWhen = { ComponentReportRequest request ->
+      if (throttled.getAndIncrement() < 2) {
+        throw new Transport.StatusException(429, 20)
+      }
+    }
+
+    def results = underTest.requestComponentReports(coordinates(2))
+    assert results.size() == 2
+    assert transport.requests.get() == 4
+  }
+
+  @Test
+  void 'throttled request fails once retries are exhausted'() {
+    underTest = createClient(rateLimitConfiguration: new RateLimitConfiguration(maxRetries: 1, initialBackoff: 10))
+    transport.failWhen = { ComponentReportRequest request ->
+      throw new Transport.StatusException(429)
+    }
+
+    try {
+      underTest.requestComponentReports(coordinates(1))
+      fail()
+    }
+    catch (Transport.StatusException e) {
+      log e // expected
+      assert e.status == 429
+    }
+    assert transport.requests.get() == 2
+  }
+
+  @Test
+  void 'adaptive batch-size grows and shrinks'() {
+    underTest = createClient(batchSize: 2, adaptiveBatchSize: true, targetBatchLatency: 1000,
+        rateLimitConfiguration: new RateLimitConfiguration(initialBackoff: 10))
+    transport.delay = 0
+
+    underTest.requestComponentReports(coordinates(60))
+    assert underTest.batchSize > 2
+    int grown = underTest.batchSize
+
+    def throttled = new AtomicInteger()
+    transport.failWhen = { ComponentReportRequest request ->
+      if (throttled.getAndIncrement() == 0) {
+        throw new Transport.StatusException(429, 10)
+      }
+    }
+    def purls = (1..grown).collect { PackageUrl.parse("pkg:mock/foo/baz@$it") }
+    def results = underTest.requestComponentReports(purls)
+    assert results.keySet().toList() == purls
+    log "Batch-size: $grown -> ${underTest.batchSize}"
+    assert underTest.batchSize < grown
+  }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2018-present Sonatype, Inc. All rights reserved.
+ *
+ * This program is licensed to you under the Apache License Version 2.0,
+ * and you may not use this file except in compliance with the Apache License Version 2.0.
+ * You may obtain a copy of the Apache License Version 2.0 at http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the Apache License Version 2.0 is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Apache License Version 2.0 for the specific language governing permissions and limitations there under.
+ */
+package org.sonatype.ossindex.service.client.marshal
+
+import org.sonatype.goodies.packageurl.PackageUrl
+import org.sonatype.goodies.testsupport.TestSupport
+import org.sonatype.ossindex.service.api.componentreport.ComponentReport
+import org.sonatype.ossindex.service.api.componentreport.ComponentReportVulnerability
+import org.sonatype.ossindex.service.client.marshal.Marshaller.ElementHandler
+
+import org.junit.Before
+import org.junit.Test
+
+import static org.junit.Assert.fail
+
+/**
+ * Tests for {@link GsonMarshaller}.
+ */
+class GsonMarshallerTest
+    extends TestSupport
+{
+  private GsonMarshaller underTest
+
+  @Before
+  void setUp() {
+    underTest = new GsonMarshaller()
+  }
+
+  private static ComponentReport report(final int index) {
+    return new ComponentReport(
+        coordinates: PackageUrl.parse("pkg:mock/foo/bar@$index"),
+        description: "mock $index",
+        reference: URI.create("http://ossindex.example.com/mock-$index"),
+        vulnerabilities: [
+            new ComponentReportVulnerability(
+                id: "mock-$index",
+                title: "Mock $index",
+                cvssScore: 1.0,
+                reference: URI.create("http://ossindex.example.com/vuln/mock-$index")
+            )
+        ]
+    )
+  }
+
+  @Test
+  void 'marshal and unmarshal report'() {
+    def report = report(1)
+    report.sonatypeOssiScore = 2.5
+    report.vulnerabilities[0].with {
+      displayName = 'MOCK-1'
+      cve = 'CVE-2020-1'
+      versionRanges = ['[1,2)']
+      externalReferences = [URI.create('http://example.com/1')]
+    }
+    def json = underTest.marshal(report)
+    log json
+
+    assert underTest.unmarshal(json, ComponentReport.class) == report
+  }
+
+  @Test
+  void 'unknown fields are skipped'() {
+    def json = '''{
+      "coordinates": "pkg:mock/foo/bar@1",
+      "unknown": {"nested": [1, {"deep": null}]},
+      "description": null,
+      "vulnerabilities": [{"id": "mock-1", "future": [], "cvssScore": 7.5, "versionRanges": null}]
+    }'''
+
+    def report = underTest.unmarshal(json, ComponentReport.class)
+    assert report.coordinates == PackageUrl.parse('pkg:mock/foo/bar@1')
+    assert report.description == null
+    assert report.vulnerabilities.size() == 1
+    report.vulnerabilities[0].with {
+      assert id == 'mock-1'
+      assert cvssScore == 7.5f
+      assert versionRanges == null
+    }
+  }
+
+  @Test
+  void 'unmarshal elements'() {
+    def reports = (1..3).collect { report(it) }
+    def json = underTest.marshal(reports)
+    log json
+
+    def elements = []
+    underTest.unmarshalElements(new StringReader(json), ComponentReport.class, { elements << it } as ElementHandler)
+    assert elements == reports
+  }
+
+  @Test
+  void 'unmarshal elements requires array'() {
+    def json = underTest.marshal(report(1))
+    try {
+      underTest.unmarshalElements(new StringReader(json), ComponentReport.class, { fail() } as ElementHandler)
+      fail()
+    }
+    catch (IOException e) {
+      log e // expected
+    }
+  }
+}
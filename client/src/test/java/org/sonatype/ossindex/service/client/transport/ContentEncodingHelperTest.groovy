@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2018-present Sonatype, Inc. All rights reserved.
+ *
+ * This program is licensed to you under the Apache License Version 2.0,
+ * and you may not use this file except in compliance with the Apache License Version 2.0.
+ * You may obtain a copy of the Apache License Version 2.0 at http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the Apache License Version 2.0 is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Apache License Version 2.0 for the specific language governing permissions and limitations there under.
+ */
+package org.sonatype.ossindex.service.client.transport
+
+import java.util.zip.DeflaterOutputStream
+
+import org.sonatype.goodies.testsupport.TestSupport
+
+import org.junit.Test
+
+import static org.junit.Assert.fail
+
+/**
+ * Tests for {@link ContentEncodingHelper}.
+ */
+class ContentEncodingHelperTest
+    extends TestSupport
+{
+  private static final String PAYLOAD = '{"coordinates":["pkg:maven/foo/bar@1"]}'
+
+  @Test
+  void 'gzip payload round-trip'() {
+    def buffer = new ByteArrayOutputStream()
+    ContentEncodingHelper.gzip(new Transport.StringPayloadWriter(PAYLOAD)).writeTo(buffer)
+    assert buffer.toByteArray() != PAYLOAD.bytes
+
+    def input = ContentEncodingHelper.decode('gzip', new ByteArrayInputStream(buffer.toByteArray()))
+    assert input.getText('UTF-8') == PAYLOAD
+  }
+
+  @Test
+  void 'decode deflate'() {
+    def buffer = new ByteArrayOutputStream()
+    new DeflaterOutputStream(buffer).withStream { it.write(PAYLOAD.bytes) }
+
+    def input = ContentEncodingHelper.decode('Deflate', new ByteArrayInputStream(buffer.toByteArray()))
+    assert input.getText('UTF-8') == PAYLOAD
+  }
+
+  @Test
+  void 'decode identity'() {
+    def input = new ByteArrayInputStream(PAYLOAD.bytes)
+    assert ContentEncodingHelper.decode(null, input).is(input)
+    assert ContentEncodingHelper.decode('identity', input).is(input)
+  }
+
+  @Test
+  void 'decode unsupported'() {
+    try {
+      ContentEncodingHelper.decode('br', new ByteArrayInputStream(PAYLOAD.bytes))
+      fail()
+    }
+    catch (IOException e) {
+      log e // expected
+    }
+  }
+}
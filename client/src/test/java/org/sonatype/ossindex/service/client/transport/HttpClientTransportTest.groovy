@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2018-present Sonatype, Inc. All rights reserved.
+ *
+ * This program is licensed to you under the Apache License Version 2.0,
+ * and you may not use this file except in compliance with the Apache License Version 2.0.
+ * You may obtain a copy of the Apache License Version 2.0 at http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the Apache License Version 2.0 is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Apache License Version 2.0 for the specific language governing permissions and limitations there under.
+ */
+package org.sonatype.ossindex.service.client.transport
+
+import org.sonatype.goodies.testsupport.TestSupport
+import org.sonatype.ossindex.service.client.OssindexClientConfiguration
+import org.sonatype.ossindex.service.client.transport.Transport.ResponseFunction
+
+import org.apache.http.client.methods.HttpPost
+import org.apache.http.impl.client.CloseableHttpClient
+import org.junit.After
+import org.junit.Before
+import org.junit.Test
+
+import static org.junit.Assert.fail
+
+/**
+ * Tests for {@link HttpClientTransport}.
+ */
+class HttpClientTransportTest
+    extends TestSupport
+{
+  private static final String PAYLOAD = '{"coordinates":["pkg:maven/foo/bar@1"]}'
+
+  private MockHttpServer server
+
+  private List<CloseableHttpClient> clients
+
+  private HttpClientTransport underTest
+
+  @Before
+  void setUp() {
+    server = new MockHttpServer(response: '[{"coordinates":"pkg:maven/foo/bar@1"}]')
+    clients = []
+    underTest = new HttpClientTransport(new UserAgentSupplier('test', '1')) {
+      @Override
+      protected CloseableHttpClient createClient() {
+        CloseableHttpClient client = super.createClient()
+        clients << client
+        return client
+      }
+    }
+  }
+
+  @After
+  void tearDown() {
+    underTest?.close()
+    server?.close()
+  }
+
+  private String post(final String payload = PAYLOAD) {
+    return underTest.post(server.url, 'application/json', payload, 'application/json')
+  }
+
+  @Test
+  void 'client is reused across posts and released on close'() {
+    underTest.init(new OssindexClientConfiguration())
+    3.times {
+      assert post() == server.response
+    }
+    assert clients.size() == 1
+    assert server.requests.size() == 3
+    // pooled connection is kept alive between requests
+    assert server.requests*.remotePort.unique().size() == 1
+
+    underTest.close()
+    try {
+      post()
+      fail()
+    }
+    catch (IllegalStateException e) {
+      log e // expected; transport not initialized
+    }
+    try {
+      clients[0].execute(new HttpPost(server.url))
+      fail()
+    }
+    catch (IllegalStateException e) {
+      log e // expected; connection-pool shut down
+    }
+  }
+
+  @Test
+  void 're-init replaces client'() {
+    underTest.init(new OssindexClientConfiguration())
+    assert post() == server.response
+    underTest.close()
+
+    underTest.init(new OssindexClientConfiguration())
+    assert post() == server.response
+    assert clients.size() == 2
+  }
+
+  @Test
+  void 'response compression'() {
+    server.gzipResponses = true
+    underTest.init(new OssindexClientConfiguration())
+    assert post() == server.response
+    assert server.requests[0].header('Accept-Encoding')?.contains('gzip')
+  }
+
+  @Test
+  void 'response compression disabled'() {
+    server.gzipResponses = true
+    underTest.init(new OssindexClientConfiguration(
+        compressionConfiguration: new CompressionConfiguration(responses: false)
+    ))
+    assert post() == server.response
+    assert server.requests[0].header('Accept-Encoding') == null
+  }
+
+  @Test
+  void 'streamed payload matches string payload'() {
+    underTest.init(new OssindexClientConfiguration())
+    assert post() == server.response
+    def response = underTest.post(server.url, 'application/json', new Transport.StringPayloadWriter(PAYLOAD),
+        'application/json', { InputStream input -> input.getText('UTF-8') } as ResponseFunction)
+    assert response == server.response
+
+    assert server.requests*.body == [PAYLOAD, PAYLOAD]
+    assert server.requests.every { it.header('Transfer-Encoding') == 'chunked' }
+  }
+
+  @Test
+  void 'gzip payload matches string payload'() {
+    underTest.init(new OssindexClientConfiguration(
+        compressionConfiguration: new CompressionConfiguration(requests: true)
+    ))
+    assert post() == server.response
+    assert server.requests[0].header('Content-Encoding') == 'gzip'
+    assert server.requests[0].body == PAYLOAD
+  }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2018-present Sonatype, Inc. All rights reserved.
+ *
+ * This program is licensed to you under the Apache License Version 2.0,
+ * and you may not use this file except in compliance with the Apache License Version 2.0.
+ * You may obtain a copy of the Apache License Version 2.0 at http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the Apache License Version 2.0 is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Apache License Version 2.0 for the specific language governing permissions and limitations there under.
+ */
+package org.sonatype.ossindex.service.client.transport
+
+import org.sonatype.goodies.testsupport.TestSupport
+import org.sonatype.ossindex.service.client.OssindexClientConfiguration
+import org.sonatype.ossindex.service.client.transport.Transport.ResponseFunction
+
+import org.junit.After
+import org.junit.Before
+import org.junit.Test
+
+/**
+ * Tests for {@link HttpUrlConnectionTransport}.
+ */
+class HttpUrlConnectionTransportTest
+    extends TestSupport
+{
+  private static final String PAYLOAD = '{"coordinates":["pkg:maven/foo/bar@1"]}'
+
+  private MockHttpServer server
+
+  private HttpUrlConnectionTransport underTest
+
+  @Before
+  void setUp() {
+    server = new MockHttpServer(response: '[{"coordinates":"pkg:maven/foo/bar@1"}]', gzipResponses: true)
+    underTest = new HttpUrlConnectionTransport(new UserAgentSupplier('test', '1'))
+  }
+
+  @After
+  void tearDown() {
+    underTest?.close()
+    server?.close()
+  }
+
+  @Test
+  void 'streamed payload matches string payload'() {
+    underTest.init(new OssindexClientConfiguration())
+    assert underTest.post(server.url, 'application/json', PAYLOAD, 'application/json') == server.response
+    def response = underTest.post(server.url, 'application/json', new Transport.StringPayloadWriter(PAYLOAD),
+        'application/json', { InputStream input -> input.getText('UTF-8') } as ResponseFunction)
+    assert response == server.response
+
+    assert server.requests*.body == [PAYLOAD, PAYLOAD]
+    assert server.requests.every { it.header('Transfer-Encoding') == 'chunked' }
+  }
+
+  @Test
+  void 'gzip payload matches string payload'() {
+    underTest.init(new OssindexClientConfiguration(
+        compressionConfiguration: new CompressionConfiguration(requests: true)
+    ))
+    assert underTest.post(server.url, 'application/json', PAYLOAD, 'application/json') == server.response
+    assert server.requests[0].header('Content-Encoding') == 'gzip'
+    assert server.requests[0].body == PAYLOAD
+  }
+}
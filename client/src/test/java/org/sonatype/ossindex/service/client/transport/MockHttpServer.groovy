@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2018-present Sonatype, Inc. All rights reserved.
+ *
+ * This program is licensed to you under the Apache License Version 2.0,
+ * and you may not use this file except in compliance with the Apache License Version 2.0.
+ * You may obtain a copy of the Apache License Version 2.0 at http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the Apache License Version 2.0 is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Apache License Version 2.0 for the specific language governing permissions and limitations there under.
+ */
+package org.sonatype.ossindex.service.client.transport
+
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.TimeUnit
+import java.util.zip.GZIPInputStream
+import java.util.zip.GZIPOutputStream
+
+import org.apache.http.HttpEntityEnclosingRequest
+import org.apache.http.HttpInetConnection
+import org.apache.http.HttpRequest
+import org.apache.http.HttpResponse
+import org.apache.http.entity.ByteArrayEntity
+import org.apache.http.entity.ContentType
+import org.apache.http.impl.bootstrap.HttpServer
+import org.apache.http.impl.bootstrap.ServerBootstrap
+import org.apache.http.protocol.HttpContext
+import org.apache.http.protocol.HttpCoreContext
+import org.apache.http.protocol.HttpRequestHandler
+
+/**
+ * Local HTTP server for transport tests; records requests and responds with a fixed body.
+ */
+class MockHttpServer
+    implements AutoCloseable
+{
+  static class Request
+  {
+    Map<String, List<String>> headers
+
+    /**
+     * Request body; decoded if gzip encoded.
+     */
+    String body
+
+    int remotePort
+
+    String header(final String name) {
+      return headers.find { it.key.equalsIgnoreCase(name) }?.value?.first()
+    }
+  }
+
+  final List<Request> requests = new CopyOnWriteArrayList<>()
+
+  String response = '[]'
+
+  /**
+   * Gzip encode response body when accepted by the client.
+   */
+  boolean gzipResponses = false
+
+  private final HttpServer server
+
+  MockHttpServer() {
+    server = ServerBootstrap.bootstrap()
+        .setLocalAddress(InetAddress.getLoopbackAddress())
+        .setListenerPort(0)
+        .registerHandler('*', { HttpRequest request, HttpResponse httpResponse, HttpContext context ->
+          handle(request, httpResponse, context)
+        } as HttpRequestHandler)
+        .create()
+    server.start()
+  }
+
+  private void handle(final HttpRequest request, final HttpResponse httpResponse, final HttpContext context) {
+    Map<String, List<String>> headers = new LinkedHashMap<>()
+    request.allHeaders.each { headers.get(it.name, []) << it.value }
+
+    String body = ''
+    if (request instanceof HttpEntityEnclosingRequest) {
+      InputStream input = ((HttpEntityEnclosingRequest) request).entity.content
+      if (request.getFirstHeader('Content-Encoding')?.value == 'gzip') {
+        input = new GZIPInputStream(input)
+      }
+      body = input.getText('UTF-8')
+    }
+    def connection = context.getAttribute(HttpCoreContext.HTTP_CONNECTION) as HttpInetConnection
+    requests << new Request(headers: headers, body: body, remotePort: connection.remotePort)
+
+    byte[] bytes = response.getBytes('UTF-8')
+    String acceptEncoding = request.getFirstHeader('Accept-Encoding')?.value
+    if (gzipResponses && acceptEncoding?.contains('gzip')) {
+      def buffer = new ByteArrayOutputStream()
+      new GZIPOutputStream(buffer).withStream { it.write(bytes) }
+      bytes = buffer.toByteArray()
+      httpResponse.setHeader('Content-Encoding', 'gzip')
+    }
+    httpResponse.setStatusCode(200)
+    httpResponse.entity = new ByteArrayEntity(bytes, ContentType.APPLICATION_JSON)
+  }
+
+  URI getUrl() {
+    return URI.create("http://127.0.0.1:${server.localPort}/api/v3/component-report")
+  }
+
+  @Override
+  void close() {
+    server.shutdown(0, TimeUnit.SECONDS)
+  }
+}
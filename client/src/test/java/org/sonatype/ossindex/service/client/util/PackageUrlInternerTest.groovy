@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2018-present Sonatype, Inc. All rights reserved.
+ *
+ * This program is licensed to you under the Apache License Version 2.0,
+ * and you may not use this file except in compliance with the Apache License Version 2.0.
+ * You may obtain a copy of the Apache License Version 2.0 at http://www.apache.org/licenses/LICENSE-2.0.
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the Apache License Version 2.0 is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the Apache License Version 2.0 for the specific language governing permissions and limitations there under.
+ */
+package org.sonatype.ossindex.service.client.util
+
+import org.sonatype.goodies.packageurl.InvalidException
+import org.sonatype.goodies.packageurl.PackageUrl
+import org.sonatype.goodies.packageurl.RenderFlavor
+import org.sonatype.goodies.testsupport.TestSupport
+
+import org.junit.Test
+
+import static org.junit.Assert.fail
+
+/**
+ * {@link PackageUrlInterner} tests.
+ */
+class PackageUrlInternerTest
+    extends TestSupport
+{
+  @Test
+  void 'parse returns shared instance'() {
+    def purl = PackageUrlInterner.parse('pkg:maven/foo/bar@1.0')
+    assert purl == PackageUrl.parse('pkg:maven/foo/bar@1.0')
+    assert PackageUrlInterner.parse('pkg:maven/foo/bar@1.0').is(purl)
+    assert PackageUrlInterner.render(purl) == purl.toString()
+    assert PackageUrlInterner.render(purl).is(PackageUrlInterner.render(purl))
+  }
+
+  @Test
+  void 'render follows default flavor'() {
+    def purl = PackageUrlInterner.parse('pkg:maven/foo/bar@1.0')
+    def flavor = RenderFlavor.getDefault()
+    try {
+      RenderFlavor.setDefault(RenderFlavor.SCHEME)
+      assert PackageUrlInterner.render(purl) == 'pkg:maven/foo/bar@1.0'
+
+      RenderFlavor.setDefault(RenderFlavor.SCHEMELESS)
+      assert PackageUrlInterner.render(purl) == purl.toString()
+      assert PackageUrlInterner.render(purl) == purl.toString(RenderFlavor.SCHEMELESS)
+    }
+    finally {
+      RenderFlavor.setDefault(flavor)
+    }
+  }
+
+  @Test
+  void 'invalid value is not cached'() {
+    2.times {
+      try {
+        PackageUrlInterner.parse('invalid')
+        fail()
+      }
+      catch (InvalidException e) {
+        log e // expected
+      }
+    }
+  }
+}